@@ -0,0 +1,117 @@
+package com.microfinancemanager.microfinancemanager.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread-safe size-bounded cache whose entries also expire, either after the default
+ * time-to-live or at an explicit deadline given on insert.
+ *
+ * Backed by a ConcurrentHashMap, so reads and writes on the request path never take a
+ * cache-wide lock. Eviction is approximately least-recently-used: when an insert takes
+ * the cache over its bound, one thread drops the expired entries and then the least
+ * recently read ones down to 90% of the bound, so the sweep runs once per tenth of the
+ * capacity rather than on every insert. While that thread sweeps, concurrent inserts
+ * can briefly take the size above the bound.
+ */
+public class BoundedExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final int trimTo;
+    private final long defaultTtlMillis;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    public BoundedExpiringCache(int maxEntries, Duration defaultTtl) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.trimTo = this.maxEntries - this.maxEntries / 10;
+        this.defaultTtlMillis = defaultTtl.toMillis();
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        entry.lastReadNanos = System.nanoTime();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + defaultTtlMillis);
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+        return Math.max(0, before - entries.size());
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictExpired();
+            int excess = entries.size() - trimTo;
+            if (excess <= 0) {
+                return;
+            }
+            // Read times are copied first; sorting on values other threads keep
+            // updating would break the sort
+            List<Candidate<K, V>> byLastRead = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> byLastRead.add(new Candidate<>(key, entry, entry.lastReadNanos)));
+            byLastRead.sort(Comparator.comparingLong(Candidate::lastReadNanos));
+            for (int i = 0; i < excess && i < byLastRead.size(); i++) {
+                Candidate<K, V> eldest = byLastRead.get(i);
+                entries.remove(eldest.key(), eldest.entry());
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private record Candidate<K, V>(K key, Entry<V> entry, long lastReadNanos) {
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAtMillis;
+        // Written without synchronisation; a lost update only makes eviction less exact
+        private volatile long lastReadNanos = System.nanoTime();
+
+        Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.microfinancemanager.microfinancemanager.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache in which concurrent misses on the same key share one computation: the first
+ * caller computes, everyone arriving meanwhile waits on its result. Entries live for
+ * the time-to-live measured from when their computation finished. A failed
+ * computation is not cached.
+ *
+ * Invalidation removes in-flight entries too, so a caller arriving after an
+ * invalidation never joins a computation that may have read older data.
+ *
+ * The number of entries is bounded: when a miss takes the cache over its bound, one
+ * thread drops the expired entries and then the finished ones closest to expiry down
+ * to 90% of the bound. In-flight computations are never dropped.
+ */
+public class SingleFlightCache<K, V> {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final int trimTo;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong computeNanos = new AtomicLong();
+    private final AtomicLong lastComputeNanos = new AtomicLong();
+
+    public SingleFlightCache(Duration ttl) {
+        this(ttl, Integer.MAX_VALUE);
+    }
+
+    public SingleFlightCache(Duration ttl, int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.trimTo = this.maxEntries - this.maxEntries / 10;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            return join(entry);
+        }
+
+        Entry<V> fresh = new Entry<>();
+        Entry<V> winner = entries.compute(key,
+                (k, existing) -> existing != null && !existing.isExpired(now) ? existing : fresh);
+        if (winner != fresh) {
+            return join(winner);
+        }
+
+        misses.incrementAndGet();
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+        long started = System.nanoTime();
+        try {
+            V value = loader.get();
+            fresh.complete(value, System.currentTimeMillis() + ttlMillis);
+            return value;
+        } catch (Throwable t) {
+            // Errors too: an entry left uncompleted would block every later caller on it
+            entries.remove(key, fresh);
+            fresh.future.completeExceptionally(t);
+            throw t;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            computeNanos.addAndGet(elapsed);
+            lastComputeNanos.set(elapsed);
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> affected) {
+        entries.keySet().removeIf(affected);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Stats stats() {
+        long hitCount = hits.get();
+        long coalescedCount = coalesced.get();
+        long missCount = misses.get();
+        long requests = hitCount + coalescedCount + missCount;
+        return new Stats(
+                hitCount,
+                coalescedCount,
+                missCount,
+                requests == 0 ? 0.0 : (double) (hitCount + coalescedCount) / requests,
+                missCount == 0 ? 0.0 : computeNanos.get() / 1_000_000.0 / missCount,
+                lastComputeNanos.get() / 1_000_000.0,
+                entries.size());
+    }
+
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return Math.max(0, before - entries.size());
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictExpired();
+            int excess = entries.size() - trimTo;
+            if (excess <= 0) {
+                return;
+            }
+            // Deadlines are copied first, as BoundedExpiringCache does with read times
+            List<Candidate<K, V>> byExpiry = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> {
+                if (entry.future.isDone()) {
+                    byExpiry.add(new Candidate<>(key, entry, entry.expiresAtMillis));
+                }
+            });
+            byExpiry.sort(Comparator.comparingLong(Candidate::expiresAtMillis));
+            for (int i = 0; i < excess && i < byExpiry.size(); i++) {
+                Candidate<K, V> soonest = byExpiry.get(i);
+                entries.remove(soonest.key(), soonest.entry());
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private V join(Entry<V> entry) {
+        if (entry.future.isDone()) {
+            hits.incrementAndGet();
+        } else {
+            coalesced.incrementAndGet();
+        }
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * hitRatio counts callers that waited on someone else's computation as hits.
+     */
+    public record Stats(long hits, long coalesced, long misses, double hitRatio,
+            double averageComputeMillis, double lastComputeMillis, int entries) {
+    }
+
+    private record Candidate<K, V>(K key, Entry<V> entry, long expiresAtMillis) {
+    }
+
+    private static final class Entry<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        void complete(V value, long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+            future.complete(value);
+        }
+
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
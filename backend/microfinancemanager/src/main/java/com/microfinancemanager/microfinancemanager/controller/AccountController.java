@@ -3,18 +3,22 @@ package com.microfinancemanager.microfinancemanager.controller;
 import com.microfinancemanager.microfinancemanager.dto.account.AccountResponse;
 import com.microfinancemanager.microfinancemanager.dto.account.CreateAccountRequest;
 import com.microfinancemanager.microfinancemanager.dto.common.ApiResponse;
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
 import com.microfinancemanager.microfinancemanager.model.Account;
 import com.microfinancemanager.microfinancemanager.service.AccountService;
+import com.microfinancemanager.microfinancemanager.service.SavingsInterestJob;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +32,7 @@ import java.util.Map;
 public class AccountController {
 
     private final AccountService accountService;
+    private final SavingsInterestJob savingsInterestJob;
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<AccountResponse>> getUserAccounts(
@@ -38,6 +43,22 @@ public class AccountController {
         return ResponseEntity.ok(accounts);
     }
 
+    @GetMapping("/user/{userId}/cursor")
+    @Operation(
+        summary = "Get user accounts with cursor pagination",
+        description = "Newest account first. Pass the returned nextCursor to fetch the following page."
+    )
+    public ResponseEntity<CursorPage<AccountResponse>> getUserAccountsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        Account.AccountStatus accountStatus = status != null ? Account.AccountStatus.valueOf(status) : null;
+        CursorPage<AccountResponse> accounts = accountService.getUserAccountsAfter(userId, accountStatus, cursor,
+                Math.max(1, Math.min(limit, 100)));
+        return ResponseEntity.ok(accounts);
+    }
+
     @GetMapping("/{accountId}")
     public ResponseEntity<AccountResponse> getAccountById(@PathVariable Long accountId) {
         AccountResponse account = accountService.getAccountById(accountId);
@@ -73,4 +94,17 @@ public class AccountController {
         data.put("status", "CLOSED");
         return ResponseEntity.ok(new ApiResponse("Account closed successfully", data));
     }
+
+    @PostMapping("/interest/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Post savings interest now",
+        description = "Runs (or resumes) period-end interest posting on SAVINGS and INVESTMENT accounts for the period ending on periodEnd (default: the last day of the previous month). Only the most recently ended period can be posted. Accounts already paid for that period are skipped."
+    )
+    public ResponseEntity<ApiResponse> runSavingsInterest(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodEnd) {
+        LocalDate end = periodEnd != null ? periodEnd : savingsInterestJob.lastEndedPeriod();
+        Map<String, Object> data = savingsInterestJob.run(end);
+        return ResponseEntity.ok(new ApiResponse("Savings interest posted", data));
+    }
 }
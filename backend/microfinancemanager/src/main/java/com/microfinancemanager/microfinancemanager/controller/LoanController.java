@@ -1,21 +1,33 @@
 package com.microfinancemanager.microfinancemanager.controller;
 
 import com.microfinancemanager.microfinancemanager.dto.common.ApiResponse;
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
 import com.microfinancemanager.microfinancemanager.dto.loan.ApproveLoanRequest;
 import com.microfinancemanager.microfinancemanager.dto.loan.CreateLoanRequest;
+import com.microfinancemanager.microfinancemanager.dto.loan.InstallmentResponse;
 import com.microfinancemanager.microfinancemanager.dto.loan.LoanResponse;
+import com.microfinancemanager.microfinancemanager.dto.loan.NextInstallmentResponse;
+import com.microfinancemanager.microfinancemanager.dto.loan.RateChangeRequest;
 import com.microfinancemanager.microfinancemanager.model.Loan;
+import com.microfinancemanager.microfinancemanager.service.InstallmentReminderJob;
+import com.microfinancemanager.microfinancemanager.service.InterestAccrualJob;
+import com.microfinancemanager.microfinancemanager.service.LoanDefaultJob;
+import com.microfinancemanager.microfinancemanager.service.LoanScheduleService;
 import com.microfinancemanager.microfinancemanager.service.LoanService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +41,10 @@ import java.util.Map;
 public class LoanController {
 
     private final LoanService loanService;
+    private final LoanScheduleService loanScheduleService;
+    private final InterestAccrualJob interestAccrualJob;
+    private final LoanDefaultJob loanDefaultJob;
+    private final InstallmentReminderJob installmentReminderJob;
 
     @PostMapping
     public ResponseEntity<LoanResponse> createLoan(@Valid @RequestBody CreateLoanRequest request) {
@@ -38,11 +54,22 @@ public class LoanController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPPORT')")
-    @Operation(summary = "Get all loans with optional status filter")
-    public ResponseEntity<List<LoanResponse>> getAllLoans(
-            @RequestParam(required = false) String status) {
+    @Operation(
+        summary = "Search loans with cursor pagination",
+        description = "Newest request first, filterable by status, user, request date range and amount range. Pass the returned nextCursor to fetch the following page."
+    )
+    public ResponseEntity<CursorPage<LoanResponse>> getAllLoans(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         Loan.LoanStatus loanStatus = status != null ? Loan.LoanStatus.valueOf(status.toUpperCase()) : null;
-        List<LoanResponse> loans = loanService.getAllLoans(loanStatus);
+        CursorPage<LoanResponse> loans = loanService.searchLoans(loanStatus, userId, startDate, endDate,
+                minAmount, maxAmount, cursor, clampLimit(limit));
         return ResponseEntity.ok(loans);
     }
 
@@ -55,12 +82,95 @@ public class LoanController {
         return ResponseEntity.ok(loans);
     }
 
+    @GetMapping("/user/{userId}/cursor")
+    @Operation(
+        summary = "Get user loans with cursor pagination",
+        description = "Newest request first. Pass the returned nextCursor to fetch the following page."
+    )
+    public ResponseEntity<CursorPage<LoanResponse>> getUserLoansByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        Loan.LoanStatus loanStatus = status != null ? Loan.LoanStatus.valueOf(status) : null;
+        CursorPage<LoanResponse> loans = loanService.searchLoans(loanStatus, userId, null, null, null, null,
+                cursor, clampLimit(limit));
+        return ResponseEntity.ok(loans);
+    }
+
     @GetMapping("/{loanId}")
     public ResponseEntity<LoanResponse> getLoanById(@PathVariable Long loanId) {
         LoanResponse loan = loanService.getLoanById(loanId);
         return ResponseEntity.ok(loan);
     }
 
+    @GetMapping("/{loanId}/schedule")
+    @Operation(summary = "Get the loan's repayment schedule")
+    public ResponseEntity<List<InstallmentResponse>> getLoanSchedule(@PathVariable Long loanId) {
+        return ResponseEntity.ok(loanScheduleService.getSchedule(loanId));
+    }
+
+    @GetMapping("/{loanId}/next-installment")
+    @Operation(summary = "Get the next unpaid installment and the amount still due on it")
+    public ResponseEntity<NextInstallmentResponse> getNextInstallment(@PathVariable Long loanId) {
+        return ResponseEntity.ok(loanScheduleService.getNextInstallment(loanId));
+    }
+
+    @PutMapping("/rate-change")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Change the interest rate of loans",
+        description = "Sets the new rate and re-amortizes the outstanding balance of approved and active loans over their remaining installments"
+    )
+    public ResponseEntity<ApiResponse> changeInterestRate(@Valid @RequestBody RateChangeRequest request) {
+        Map<String, Object> data = loanScheduleService.changeInterestRate(request.getLoanIds(), request.getInterestRate());
+        return ResponseEntity.ok(new ApiResponse("Interest rate updated successfully", data));
+    }
+
+    @PostMapping("/accrual/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Run penalty accrual now",
+        description = "Runs (or resumes) the nightly late-penalty accrual for today. Loans already accrued today are skipped; " +
+                "loans missed on earlier nights are charged for every day since their last accrual."
+    )
+    public ResponseEntity<ApiResponse> runInterestAccrual() {
+        Map<String, Object> data = interestAccrualJob.run(LocalDate.now());
+        return ResponseEntity.ok(new ApiResponse("Penalty accrual completed", data));
+    }
+
+    @PostMapping("/defaults/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Run default detection now",
+        description = "Marks ACTIVE loans whose due date passed the grace period since the last run as DEFAULTED and notifies the borrowers."
+    )
+    public ResponseEntity<ApiResponse> runDefaultDetection() {
+        Map<String, Object> data = loanDefaultJob.run(LocalDate.now());
+        return ResponseEntity.ok(new ApiResponse("Default detection completed", data));
+    }
+
+    @PostMapping("/reminders/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Send installment reminders now",
+        description = "Queues PAYMENT_DUE reminders for pending installments due within the configured number of days. Installments already reminded are skipped."
+    )
+    public ResponseEntity<InstallmentReminderJob.Stats> runInstallmentReminders() {
+        return ResponseEntity.ok(installmentReminderJob.run(LocalDate.now()));
+    }
+
+    @GetMapping("/reminders/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Last installment reminder run",
+        description = "Reminders queued, throughput and lag of the last completed run on this instance."
+    )
+    public ResponseEntity<InstallmentReminderJob.Stats> getInstallmentReminderStats() {
+        InstallmentReminderJob.Stats stats = installmentReminderJob.getLastRun();
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{loanId}/approve")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> approveLoan(
@@ -137,4 +247,8 @@ public class LoanController {
         
         return ResponseEntity.ok(new ApiResponse("Loan closed successfully", data));
     }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, 100));
+    }
 }
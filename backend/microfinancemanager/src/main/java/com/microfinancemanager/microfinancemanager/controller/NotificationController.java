@@ -1,19 +1,27 @@
 package com.microfinancemanager.microfinancemanager.controller;
 
 import com.microfinancemanager.microfinancemanager.dto.common.ApiResponse;
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.notification.BroadcastJobResponse;
+import com.microfinancemanager.microfinancemanager.dto.notification.BroadcastRequest;
 import com.microfinancemanager.microfinancemanager.dto.notification.CreateNotificationRequest;
 import com.microfinancemanager.microfinancemanager.dto.notification.NotificationResponse;
 import com.microfinancemanager.microfinancemanager.model.Notification;
+import com.microfinancemanager.microfinancemanager.service.BroadcastService;
+import com.microfinancemanager.microfinancemanager.service.NotificationArchiveJob;
 import com.microfinancemanager.microfinancemanager.service.NotificationService;
+import com.microfinancemanager.microfinancemanager.service.NotificationStreamHub;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +36,9 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamHub notificationStreamHub;
+    private final NotificationArchiveJob notificationArchiveJob;
+    private final BroadcastService broadcastService;
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<NotificationResponse>> getUserNotifications(
@@ -46,6 +57,88 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/user/{userId}/cursor")
+    @Operation(
+        summary = "Get user notifications with cursor pagination",
+        description = "Newest first. Pass the returned nextCursor to fetch the following page."
+    )
+    public ResponseEntity<CursorPage<NotificationResponse>> getUserNotificationsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        Notification.NotificationStatus notificationStatus = status != null ?
+                Notification.NotificationStatus.valueOf(status) : null;
+        Notification.NotificationType notificationType = type != null ?
+                Notification.NotificationType.valueOf(type) : null;
+
+        CursorPage<NotificationResponse> notifications = notificationService.getUserNotificationsAfter(
+                userId, notificationStatus, notificationType, cursor, Math.max(1, Math.min(limit, 100)));
+
+        return ResponseEntity.ok(notifications);
+    }
+
+    @PutMapping("/user/{userId}/read-all")
+    @Operation(summary = "Mark all of a user's notifications as read")
+    public ResponseEntity<ApiResponse> markAllAsRead(@PathVariable Long userId) {
+        int updated = notificationService.markAllAsRead(userId);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", userId);
+        data.put("updated", updated);
+
+        return ResponseEntity.ok(new ApiResponse("Notifications marked as read", data));
+    }
+
+    @PostMapping("/archive/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Archive old notifications now",
+        description = "Moves READ and ARCHIVED notifications past the retention period into notifications_archive"
+    )
+    public ResponseEntity<ApiResponse> runArchive() {
+        return ResponseEntity.ok(new ApiResponse("Notifications archived", notificationArchiveJob.run()));
+    }
+
+    @PostMapping("/broadcasts")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Broadcast a notification to a user segment",
+        description = "Starts a background job that notifies every user matching the optional status, role " +
+                "and hasActiveLoan filters; poll the returned job for progress"
+    )
+    public ResponseEntity<BroadcastJobResponse> startBroadcast(@Valid @RequestBody BroadcastRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(broadcastService.startBroadcast(request));
+    }
+
+    @GetMapping("/broadcasts/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get broadcast progress")
+    public ResponseEntity<BroadcastJobResponse> getBroadcast(@PathVariable Long jobId) {
+        return ResponseEntity.ok(broadcastService.getBroadcast(jobId));
+    }
+
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream new notifications (Server-Sent Events)",
+        description = "Pushes each new notification as a 'notification' event whose id is the notification id. Reconnect with Last-Event-ID to receive what was missed."
+    )
+    public SseEmitter streamNotifications(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationStreamHub.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    @Operation(
+        summary = "Get the unread notification count",
+        description = "Served from in-memory counters, so badge polling does not touch the database"
+    )
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(userId)));
+    }
+
     @GetMapping("/{notificationId}")
     public ResponseEntity<NotificationResponse> getNotificationById(@PathVariable Long notificationId) {
         NotificationResponse notification = notificationService.getNotificationById(notificationId);
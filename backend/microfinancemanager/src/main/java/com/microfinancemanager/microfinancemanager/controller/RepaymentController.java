@@ -32,8 +32,10 @@ public class RepaymentController {
     private final RepaymentService repaymentService;
 
     @PostMapping
-    public ResponseEntity<RepaymentResponse> createRepayment(@Valid @RequestBody CreateRepaymentRequest request) {
-        RepaymentResponse repayment = repaymentService.createRepayment(request);
+    public ResponseEntity<RepaymentResponse> createRepayment(
+            @Valid @RequestBody CreateRepaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        RepaymentResponse repayment = repaymentService.createRepayment(request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(repayment);
     }
 
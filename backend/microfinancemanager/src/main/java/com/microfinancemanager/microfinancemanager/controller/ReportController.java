@@ -1,15 +1,25 @@
 package com.microfinancemanager.microfinancemanager.controller;
 
+import com.microfinancemanager.microfinancemanager.cache.SingleFlightCache;
 import com.microfinancemanager.microfinancemanager.dto.report.DashboardResponse;
+import com.microfinancemanager.microfinancemanager.dto.report.ParReportResponse;
+import com.microfinancemanager.microfinancemanager.dto.report.ReportBreakdownResponse;
+import com.microfinancemanager.microfinancemanager.dto.report.TimeSeriesResponse;
+import com.microfinancemanager.microfinancemanager.service.ParReportService;
+import com.microfinancemanager.microfinancemanager.service.ReportRollupService;
 import com.microfinancemanager.microfinancemanager.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/reports")
 @RequiredArgsConstructor
@@ -19,6 +29,7 @@ import org.springframework.web.bind.annotation.*;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ParReportService parReportService;
 
     @Operation(
         summary = "Get admin dashboard statistics",
@@ -30,4 +41,57 @@ public class ReportController {
         DashboardResponse dashboard = reportService.getAdminDashboard();
         return ResponseEntity.ok(dashboard);
     }
+
+    @Operation(
+        summary = "Get report breakdown",
+        description = "Users, accounts and loans by status, plus transaction totals by type and by day for the date range (default: last 30 days). Admin only."
+    )
+    @GetMapping("/admin/breakdown")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReportBreakdownResponse> getReportBreakdown(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(29);
+        return ResponseEntity.ok(reportService.getReportBreakdown(start, end));
+    }
+
+    @Operation(
+        summary = "Get portfolio-at-risk report",
+        description = "PAR1/PAR30/PAR90 and arrears aging of active loans, overall and by loan size band. Computed once per business day unless refresh=true. Admin only."
+    )
+    @GetMapping("/admin/par")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ParReportResponse> getParReport(@RequestParam(defaultValue = "false") boolean refresh) {
+        if (refresh) {
+            parReportService.invalidate();
+        }
+        return ResponseEntity.ok(parReportService.getParReport());
+    }
+
+    @Operation(
+        summary = "Get time-series volumes",
+        description = "Transaction count and amount by type, disbursements and repayments per DAY, WEEK (starting Monday) or MONTH. Defaults to the last 12 months by MONTH. Admin only."
+    )
+    @GetMapping("/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimeSeriesResponse> getTimeSeries(
+            @RequestParam(defaultValue = "MONTH") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusYears(1).plusDays(1);
+        ReportRollupService.Granularity bucket = ReportRollupService.Granularity.valueOf(granularity.toUpperCase());
+        return ResponseEntity.ok(reportService.getTimeSeries(bucket, start, end));
+    }
+
+    @Operation(
+        summary = "Get report cache statistics",
+        description = "Hit ratio, coalesced requests and compute time per report cache. Admin only."
+    )
+    @GetMapping("/admin/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, SingleFlightCache.Stats>> getCacheStats() {
+        return ResponseEntity.ok(reportService.getCacheStats());
+    }
 }
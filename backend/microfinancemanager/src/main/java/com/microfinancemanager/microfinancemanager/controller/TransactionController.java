@@ -1,9 +1,15 @@
 package com.microfinancemanager.microfinancemanager.controller;
 
 import com.microfinancemanager.microfinancemanager.dto.common.ApiResponse;
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.transaction.BatchTransactionRequest;
+import com.microfinancemanager.microfinancemanager.dto.transaction.BatchTransactionResponse;
 import com.microfinancemanager.microfinancemanager.dto.transaction.CreateTransactionRequest;
 import com.microfinancemanager.microfinancemanager.dto.transaction.TransactionResponse;
+import com.microfinancemanager.microfinancemanager.dto.transaction.TransferRequest;
+import com.microfinancemanager.microfinancemanager.dto.transaction.TransferResponse;
 import com.microfinancemanager.microfinancemanager.model.Transaction;
+import com.microfinancemanager.microfinancemanager.service.StatementExportService;
 import com.microfinancemanager.microfinancemanager.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -14,10 +20,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -32,6 +41,7 @@ import java.util.Map;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final StatementExportService statementExportService;
 
     @GetMapping("/account/{accountId}")
     public ResponseEntity<Page<TransactionResponse>> getAccountTransactions(
@@ -69,6 +79,84 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/account/{accountId}/cursor")
+    @Operation(
+        summary = "Get account transactions with cursor pagination",
+        description = "Newest first. Pass the returned nextCursor to fetch the following page; no total count is computed."
+    )
+    public ResponseEntity<CursorPage<TransactionResponse>> getAccountTransactionsByCursor(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Transaction.TransactionType transactionType = type != null ? Transaction.TransactionType.valueOf(type) : null;
+
+        CursorPage<TransactionResponse> transactions = transactionService.getAccountTransactionsAfter(
+                accountId, transactionType, startDate, endDate, cursor, clampLimit(limit));
+
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/user/{userId}/cursor")
+    @Operation(
+        summary = "Get user transactions with cursor pagination",
+        description = "Newest first across all of the user's accounts. Pass the returned nextCursor to fetch the following page."
+    )
+    public ResponseEntity<CursorPage<TransactionResponse>> getUserTransactionsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Transaction.TransactionType transactionType = type != null ? Transaction.TransactionType.valueOf(type) : null;
+
+        CursorPage<TransactionResponse> transactions = transactionService.getUserTransactionsAfter(
+                userId, transactionType, startDate, endDate, cursor, clampLimit(limit));
+
+        return ResponseEntity.ok(transactions);
+    }
+
+    @GetMapping("/account/{accountId}/export")
+    @Operation(
+        summary = "Export an account statement",
+        description = "Streams every transaction in the range, oldest first, as gzip-encoded CSV or NDJSON"
+    )
+    public ResponseEntity<StreamingResponseBody> exportAccountStatement(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        StatementExportService.Format exportFormat = StatementExportService.Format.valueOf(format.toUpperCase());
+        StreamingResponseBody body = out ->
+                statementExportService.exportAccountStatement(accountId, startDate, endDate, exportFormat, out);
+
+        return statementResponse("account-" + accountId, exportFormat, body);
+    }
+
+    @GetMapping("/user/{userId}/export")
+    @Operation(
+        summary = "Export a user statement",
+        description = "Streams every transaction across the user's accounts in the range as gzip-encoded CSV or NDJSON"
+    )
+    public ResponseEntity<StreamingResponseBody> exportUserStatement(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        StatementExportService.Format exportFormat = StatementExportService.Format.valueOf(format.toUpperCase());
+        StreamingResponseBody body = out ->
+                statementExportService.exportUserStatement(userId, startDate, endDate, exportFormat, out);
+
+        return statementResponse("user-" + userId, exportFormat, body);
+    }
+
     @GetMapping("/{transactionId}")
     public ResponseEntity<TransactionResponse> getTransactionById(@PathVariable Long transactionId) {
         TransactionResponse transaction = transactionService.getTransactionById(transactionId);
@@ -76,11 +164,35 @@ public class TransactionController {
     }
 
     @PostMapping
-    public ResponseEntity<TransactionResponse> createTransaction(@Valid @RequestBody CreateTransactionRequest request) {
-        TransactionResponse transaction = transactionService.createTransaction(request);
+    public ResponseEntity<TransactionResponse> createTransaction(
+            @Valid @RequestBody CreateTransactionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransactionResponse transaction = transactionService.createTransaction(request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
     }
 
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Post a batch of transactions",
+        description = "Validates and posts many transactions in one database transaction. With atomic=true any invalid item rejects the whole batch; with atomic=false valid items are posted and failures are reported per item."
+    )
+    public ResponseEntity<BatchTransactionResponse> createTransactions(
+            @Valid @RequestBody BatchTransactionRequest request) {
+        BatchTransactionResponse response = transactionService.createTransactions(request);
+        HttpStatus status = response.isCommitted() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/transfer")
+    @Operation(
+        summary = "Transfer funds between accounts",
+        description = "Debits the source and credits the destination account atomically. Both legs share one transfer reference."
+    )
+    public ResponseEntity<TransferResponse> transfer(@Valid @RequestBody TransferRequest request) {
+        TransferResponse transfer = transactionService.transfer(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(transfer);
+    }
+
     @PutMapping("/{transactionId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> updateTransaction(
@@ -107,4 +219,19 @@ public class TransactionController {
         
         return ResponseEntity.ok(new ApiResponse("Transaction reversed successfully", data));
     }
+
+    private ResponseEntity<StreamingResponseBody> statementResponse(String name,
+            StatementExportService.Format format, StreamingResponseBody body) {
+        boolean csv = format == StatementExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, 100));
+    }
 }
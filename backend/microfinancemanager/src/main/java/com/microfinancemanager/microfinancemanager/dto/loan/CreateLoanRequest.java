@@ -31,4 +31,7 @@ public class CreateLoanRequest {
     @NotNull(message = "Repayment period is required")
     @Min(value = 1, message = "Repayment period must be at least 1 month")
     private Integer repaymentPeriodMonths;
+
+    // FLAT or REDUCING_BALANCE (default)
+    private String interestMethod;
 }
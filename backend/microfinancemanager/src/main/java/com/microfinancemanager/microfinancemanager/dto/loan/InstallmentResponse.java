@@ -0,0 +1,26 @@
+package com.microfinancemanager.microfinancemanager.dto.loan;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstallmentResponse {
+
+    private Integer installmentNumber;
+    private LocalDate dueDate;
+    private BigDecimal principalDue;
+    private BigDecimal interestDue;
+    private BigDecimal totalDue;
+    private BigDecimal cumulativeDue;
+    private String status;
+    private LocalDateTime paidAt;
+}
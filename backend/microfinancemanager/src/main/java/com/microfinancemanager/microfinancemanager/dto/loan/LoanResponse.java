@@ -21,10 +21,12 @@ public class LoanResponse {
     private BigDecimal amount;
     private BigDecimal interestRate;
     private Integer repaymentPeriodMonths;
+    private String interestMethod;
     private String status;
     private LocalDateTime requestDate;
     private LocalDateTime startDate;
     private LocalDate dueDate;
     private BigDecimal principalBalance;
     private BigDecimal totalRepaid;
+    private BigDecimal accruedPenalty;
 }
@@ -0,0 +1,23 @@
+package com.microfinancemanager.microfinancemanager.dto.loan;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NextInstallmentResponse {
+
+    private Long loanId;
+    private Integer installmentNumber;
+    private LocalDate dueDate;
+    private BigDecimal totalDue;
+    // What is still owed on this installment after partial payments
+    private BigDecimal amountDue;
+}
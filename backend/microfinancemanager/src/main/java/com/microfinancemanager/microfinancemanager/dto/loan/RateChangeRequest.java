@@ -0,0 +1,26 @@
+package com.microfinancemanager.microfinancemanager.dto.loan;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateChangeRequest {
+
+    @NotEmpty(message = "At least one loan ID is required")
+    @Size(max = 100000, message = "At most 100000 loans per rate change")
+    private List<Long> loanIds;
+
+    @NotNull(message = "Interest rate is required")
+    @DecimalMin(value = "0.0", message = "Interest rate must be non-negative")
+    private BigDecimal interestRate;
+}
@@ -0,0 +1,29 @@
+package com.microfinancemanager.microfinancemanager.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastJobResponse {
+
+    private Long jobId;
+    private String type;
+    private String status;
+    private String userStatus;
+    private String role;
+    private Boolean hasActiveLoan;
+    private Long totalRecipients;
+    private Long sent;
+    private Integer percentComplete;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
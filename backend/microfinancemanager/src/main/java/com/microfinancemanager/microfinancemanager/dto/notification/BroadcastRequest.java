@@ -0,0 +1,26 @@
+package com.microfinancemanager.microfinancemanager.dto.notification;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastRequest {
+
+    @NotNull(message = "Notification type is required")
+    private String type;
+
+    @NotBlank(message = "Message is required")
+    private String message;
+
+    // Segment filters; leave one out to match every value
+    private String userStatus;
+
+    private String role;
+
+    private Boolean hasActiveLoan;
+}
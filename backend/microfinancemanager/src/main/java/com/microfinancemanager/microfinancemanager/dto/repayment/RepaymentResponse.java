@@ -17,6 +17,9 @@ public class RepaymentResponse {
     private Long repaymentId;
     private Long loanId;
     private BigDecimal amount;
+    private BigDecimal penaltyAmount;
+    private BigDecimal interestAmount;
+    private BigDecimal principalAmount;
     private LocalDateTime timestamp;
     private String method;
     private String reference;
@@ -0,0 +1,17 @@
+package com.microfinancemanager.microfinancemanager.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotal {
+    private LocalDate day;
+    private Long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,49 @@
+package com.microfinancemanager.microfinancemanager.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParReportResponse {
+    private LocalDate asOfDate;
+    // ACTIVE and DEFAULTED loans
+    private Long activeLoans;
+    private BigDecimal totalOutstanding;
+    // Share of outstanding principal more than 1, 30 and 90 days overdue, in percent
+    private BigDecimal par1;
+    private BigDecimal par30;
+    private BigDecimal par90;
+    private List<AgingBucket> agingBuckets;
+    private List<SizeBand> sizeBands;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgingBucket {
+        private String label;
+        private Long loanCount;
+        private BigDecimal outstanding;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SizeBand {
+        private String label;
+        private Long loanCount;
+        private BigDecimal outstanding;
+        private BigDecimal par30;
+        private List<AgingBucket> agingBuckets;
+    }
+}
@@ -0,0 +1,23 @@
+package com.microfinancemanager.microfinancemanager.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportBreakdownResponse {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<StatusCount> usersByStatus;
+    private List<StatusCount> accountsByStatus;
+    private List<StatusCount> loansByStatus;
+    private List<TypeTotal> transactionsByType;
+    private List<DailyTotal> transactionsByDay;
+}
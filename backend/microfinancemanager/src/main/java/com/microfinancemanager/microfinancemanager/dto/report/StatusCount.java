@@ -0,0 +1,13 @@
+package com.microfinancemanager.microfinancemanager.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusCount {
+    private String status;
+    private Long count;
+}
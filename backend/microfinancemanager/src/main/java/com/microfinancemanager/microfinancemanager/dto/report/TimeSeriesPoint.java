@@ -0,0 +1,18 @@
+package com.microfinancemanager.microfinancemanager.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesPoint {
+    private LocalDate period;
+    private String metric;
+    private Long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,23 @@
+package com.microfinancemanager.microfinancemanager.dto.transaction;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionRequest {
+
+    @NotEmpty(message = "At least one transaction is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 transactions")
+    private List<@Valid CreateTransactionRequest> transactions;
+
+    // true = all-or-nothing, false = post the valid items and report the rest
+    private boolean atomic = true;
+}
@@ -0,0 +1,33 @@
+package com.microfinancemanager.microfinancemanager.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionResponse {
+
+    private boolean atomic;
+    private boolean committed;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BatchItemResult {
+        private int index;
+        private boolean success;
+        private TransactionResponse transaction;
+        private String error;
+    }
+}
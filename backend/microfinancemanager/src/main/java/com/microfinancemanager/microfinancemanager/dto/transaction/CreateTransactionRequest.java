@@ -17,7 +17,7 @@ public class CreateTransactionRequest {
     private Long accountId;
     
     @NotNull(message = "Transaction type is required")
-    private String type; // DEPOSIT, WITHDRAWAL, TRANSFER, PAYMENT
+    private String type; // DEPOSIT, WITHDRAWAL, PAYMENT (transfers use /api/transactions/transfer)
     
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
@@ -22,4 +22,5 @@ public class TransactionResponse {
     private String description;
     private String status;
     private String referenceNumber;
+    private String transferReference;
 }
@@ -0,0 +1,27 @@
+package com.microfinancemanager.microfinancemanager.dto.transaction;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequest {
+
+    @NotNull(message = "Source account ID is required")
+    private Long fromAccountId;
+
+    @NotNull(message = "Destination account ID is required")
+    private Long toAccountId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    private String description;
+}
@@ -0,0 +1,17 @@
+package com.microfinancemanager.microfinancemanager.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferResponse {
+
+    private String transferReference;
+    private TransactionResponse debit;
+    private TransactionResponse credit;
+}
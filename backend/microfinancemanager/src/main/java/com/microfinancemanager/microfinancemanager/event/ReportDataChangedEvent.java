@@ -0,0 +1,8 @@
+package com.microfinancemanager.microfinancemanager.event;
+
+/**
+ * Published whenever a change may alter report figures. Report caches drop their
+ * entries once the publishing transaction has committed.
+ */
+public record ReportDataChangedEvent(String source) {
+}
@@ -0,0 +1,12 @@
+package com.microfinancemanager.microfinancemanager.exception;
+
+/**
+ * An Idempotency-Key was sent again with a request body that differs from the one it
+ * was first used with. Answered with 422 Unprocessable Entity.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
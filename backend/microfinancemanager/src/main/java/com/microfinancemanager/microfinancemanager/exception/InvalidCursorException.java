@@ -0,0 +1,12 @@
+package com.microfinancemanager.microfinancemanager.exception;
+
+/**
+ * A pagination cursor that was not issued by the API, or was altered on the way back.
+ * Answered with 400 Bad Request.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Entity
@@ -42,6 +44,23 @@ public class Account {
     @lombok.Builder.Default
     private AccountStatus status = AccountStatus.ACTIVE;
 
+    // Sum of the closing balance of every day of the current interest period before
+    // balanceAsOf. The balance itself has been the closing balance since balanceAsOf.
+    @Column(name = "balance_days", nullable = false, precision = 19, scale = 2)
+    @lombok.Builder.Default
+    private BigDecimal balanceDays = BigDecimal.ZERO;
+
+    @Column(name = "balance_as_of")
+    private LocalDate balanceAsOf;
+
+    @Column(name = "interest_posted_through")
+    private LocalDate interestPostedThrough;
+
+    @Transient
+    @lombok.EqualsAndHashCode.Exclude
+    @lombok.ToString.Exclude
+    private BigDecimal loadedBalance;
+
     @Column(name = "created_at")
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -56,6 +75,38 @@ public class Account {
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL)
     private List<Loan> loans;
 
+    @PostLoad
+    void rememberLoadedBalance() {
+        loadedBalance = balance;
+    }
+
+    @PrePersist
+    void startBalanceDays() {
+        if (balanceAsOf == null) {
+            balanceAsOf = LocalDate.now();
+        }
+    }
+
+    /**
+     * Folds the days the loaded balance was held into balanceDays before a new balance
+     * is written, so daily balances build up from postings without rescanning history.
+     */
+    @PreUpdate
+    void rollBalanceDays() {
+        if (loadedBalance == null || balance.compareTo(loadedBalance) == 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (balanceAsOf != null && balanceAsOf.isBefore(today)) {
+            long days = ChronoUnit.DAYS.between(balanceAsOf, today);
+            balanceDays = balanceDays.add(loadedBalance.multiply(BigDecimal.valueOf(days)));
+        }
+        if (balanceAsOf == null || balanceAsOf.isBefore(today)) {
+            balanceAsOf = today;
+        }
+        loadedBalance = balance;
+    }
+
     public enum AccountType {
         SAVINGS, CHECKING, CREDIT, INVESTMENT
     }
@@ -0,0 +1,80 @@
+package com.microfinancemanager.microfinancemanager.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification sent to every user in a segment. The recipients are written by the
+ * BroadcastService in the background; sent and lastUserId record its progress.
+ */
+@Entity
+@Table(name = "broadcast_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BroadcastJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Notification.NotificationType type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    // Segment; a null criterion matches everyone
+    @Enumerated(EnumType.STRING)
+    @Column(name = "user_status")
+    private User.UserStatus userStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "user_role")
+    private User.UserRole userRole;
+
+    @Column(name = "has_active_loan")
+    private Boolean hasActiveLoan;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @lombok.Builder.Default
+    private BroadcastStatus status = BroadcastStatus.PENDING;
+
+    @Column(name = "total_recipients")
+    private Long totalRecipients;
+
+    @Column(nullable = false)
+    @lombok.Builder.Default
+    private Long sent = 0L;
+
+    @Column(name = "last_user_id", nullable = false)
+    @lombok.Builder.Default
+    private Long lastUserId = 0L;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "created_at")
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum BroadcastStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
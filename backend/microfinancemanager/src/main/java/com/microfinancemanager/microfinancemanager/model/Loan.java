@@ -42,6 +42,11 @@ public class Loan {
     @Column(name = "repayment_period_months", nullable = false)
     private Integer repaymentPeriodMonths;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "interest_method", nullable = false)
+    @lombok.Builder.Default
+    private InterestMethod interestMethod = InterestMethod.REDUCING_BALANCE;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @lombok.Builder.Default
@@ -60,14 +65,27 @@ public class Loan {
     @Column(name = "principal_balance", nullable = false, precision = 15, scale = 2)
     private BigDecimal principalBalance;
 
+    // Repaid towards the schedule; penalty payments are not included
     @Column(name = "total_repaid", precision = 15, scale = 2)
     @lombok.Builder.Default
     private BigDecimal totalRepaid = BigDecimal.ZERO;
 
+    // Late penalty added by the nightly accrual job and settled first by repayments
+    @Column(name = "accrued_penalty", precision = 15, scale = 2)
+    @lombok.Builder.Default
+    private BigDecimal accruedPenalty = BigDecimal.ZERO;
+
+    @Column(name = "last_accrual_date")
+    private LocalDate lastAccrualDate;
+
     @OneToMany(mappedBy = "loan", cascade = CascadeType.ALL)
     private List<Repayment> repayments;
 
     public enum LoanStatus {
         PENDING, APPROVED, REJECTED, ACTIVE, PAID_OFF, DEFAULTED
     }
+
+    public enum InterestMethod {
+        FLAT, REDUCING_BALANCE
+    }
 }
@@ -0,0 +1,66 @@
+package com.microfinancemanager.microfinancemanager.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a loan's repayment schedule. cumulativeDue is the running total of
+ * totalDue up to and including this installment, so every installment whose
+ * cumulativeDue is covered by the loan's totalRepaid is paid.
+ */
+@Entity
+@Table(name = "loan_installments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanInstallment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "installment_id")
+    private Long installmentId;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @Column(name = "installment_number", nullable = false)
+    private Integer installmentNumber;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "principal_due", nullable = false, precision = 15, scale = 2)
+    private BigDecimal principalDue;
+
+    @Column(name = "interest_due", nullable = false, precision = 15, scale = 2)
+    private BigDecimal interestDue;
+
+    @Column(name = "total_due", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalDue;
+
+    @Column(name = "cumulative_due", nullable = false, precision = 15, scale = 2)
+    private BigDecimal cumulativeDue;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @lombok.Builder.Default
+    private InstallmentStatus status = InstallmentStatus.PENDING;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "reminder_sent_at")
+    private LocalDateTime reminderSentAt;
+
+    public enum InstallmentStatus {
+        PENDING, PAID
+    }
+}
@@ -38,6 +38,20 @@ public class Repayment {
     @Column(nullable = false)
     private PaymentMethod method;
 
+    // Part of amount that settled the loan's accrued late penalty
+    @Column(name = "penalty_amount", precision = 15, scale = 2)
+    @lombok.Builder.Default
+    private BigDecimal penaltyAmount = BigDecimal.ZERO;
+
+    // Parts of amount applied to the schedule's interest and principal
+    @Column(name = "interest_amount", precision = 15, scale = 2)
+    @lombok.Builder.Default
+    private BigDecimal interestAmount = BigDecimal.ZERO;
+
+    @Column(name = "principal_amount", precision = 15, scale = 2)
+    @lombok.Builder.Default
+    private BigDecimal principalAmount = BigDecimal.ZERO;
+
     @Column(length = 100)
     private String reference;
 
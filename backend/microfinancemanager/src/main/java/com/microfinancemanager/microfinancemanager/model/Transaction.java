@@ -18,8 +18,11 @@ import java.time.LocalDateTime;
 @Builder
 public class Transaction {
 
+    // Sequence-style ids are allocated in blocks, so Hibernate can batch the INSERTs;
+    // IDENTITY would force one round-trip per row to read back the generated key.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = "transaction_id_seq", allocationSize = 50)
     @Column(name = "transaction_id")
     private Long transactionId;
 
@@ -49,8 +52,12 @@ public class Transaction {
     @Column(name = "reference_number", unique = true, nullable = false, length = 100)
     private String referenceNumber;
 
+    // Shared by the debit (TRANSFER) and credit (TRANSFER_IN) legs of one transfer
+    @Column(name = "transfer_reference", length = 100)
+    private String transferReference;
+
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, TRANSFER, PAYMENT, INTEREST
+        DEPOSIT, WITHDRAWAL, TRANSFER, TRANSFER_IN, PAYMENT, INTEREST
     }
 
     public enum TransactionStatus {
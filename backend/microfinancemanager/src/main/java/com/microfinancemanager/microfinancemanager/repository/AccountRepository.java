@@ -1,15 +1,81 @@
 package com.microfinancemanager.microfinancemanager.repository;
 
+import com.microfinancemanager.microfinancemanager.dto.account.AccountResponse;
 import com.microfinancemanager.microfinancemanager.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     
-    List<Account> findByUser_UserId(Long userId);
-    
-    List<Account> findByUser_UserIdAndStatus(Long userId, Account.AccountStatus status);
+    // Selected straight into AccountResponse, so no Account entities are loaded or tracked;
+    // the last transaction date is a seek on idx_transactions_account_dt
+    String ACCOUNT_RESPONSE = "SELECT new com.microfinancemanager.microfinancemanager.dto.account.AccountResponse(" +
+            "a.accountId, a.user.userId, a.balance, CAST(a.accountType AS String), CAST(a.status AS String), " +
+            "a.createdAt, (SELECT MAX(t.timestamp) FROM Transaction t WHERE t.account = a)) FROM Account a ";
+
+    @Query(ACCOUNT_RESPONSE + "WHERE a.user.userId = :userId AND " +
+           "(:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.createdAt DESC, a.accountId DESC")
+    List<AccountResponse> findResponsesByUser(
+        @Param("userId") Long userId,
+        @Param("status") Account.AccountStatus status
+    );
+
+    @Query(ACCOUNT_RESPONSE + "WHERE a.user.userId = :userId AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:cursorTimestamp IS NULL OR a.createdAt < :cursorTimestamp OR " +
+           "(a.createdAt = :cursorTimestamp AND a.accountId < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.accountId DESC")
+    List<AccountResponse> findResponsesByUserAfterCursor(
+        @Param("userId") Long userId,
+        @Param("status") Account.AccountStatus status,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Limit limit
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountId = :accountId")
+    Optional<Account> findByIdForUpdate(@Param("accountId") Long accountId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountId IN :accountIds ORDER BY a.accountId")
+    List<Account> findAllByIdForUpdate(@Param("accountIds") Collection<Long> accountIds);
+
+    boolean existsByAccountIdAndStatus(Long accountId, Account.AccountStatus status);
+
+    @Query("SELECT a.user.userId FROM Account a WHERE a.accountId = :accountId")
+    Optional<Long> findUserIdByAccountId(@Param("accountId") Long accountId);
+
+    // Native so the days the old balance was held can be folded into balance_days in
+    // the same statement; MySQL applies the SET list left to right, so balance_days
+    // sees the balance before the change.
+    @Modifying
+    @Query(value = "UPDATE accounts SET " +
+           "balance_days = balance_days + balance * GREATEST(DATEDIFF(CURRENT_DATE, COALESCE(balance_as_of, CURRENT_DATE)), 0), " +
+           "balance_as_of = GREATEST(COALESCE(balance_as_of, CURRENT_DATE), CURRENT_DATE), " +
+           "balance = balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE account_id = :accountId AND balance >= :amount AND status = 'ACTIVE'", nativeQuery = true)
+    int debitIfSufficient(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE accounts SET " +
+           "balance_days = balance_days + balance * GREATEST(DATEDIFF(CURRENT_DATE, COALESCE(balance_as_of, CURRENT_DATE)), 0), " +
+           "balance_as_of = GREATEST(COALESCE(balance_as_of, CURRENT_DATE), CURRENT_DATE), " +
+           "balance = balance + :amount, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE account_id = :accountId AND status = 'ACTIVE'", nativeQuery = true)
+    int creditIfActive(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
 }
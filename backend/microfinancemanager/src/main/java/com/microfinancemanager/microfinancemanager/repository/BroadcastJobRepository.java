@@ -0,0 +1,14 @@
+package com.microfinancemanager.microfinancemanager.repository;
+
+import com.microfinancemanager.microfinancemanager.model.BroadcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+
+    List<BroadcastJob> findByStatusIn(Collection<BroadcastJob.BroadcastStatus> statuses);
+}
@@ -0,0 +1,13 @@
+package com.microfinancemanager.microfinancemanager.repository;
+
+import com.microfinancemanager.microfinancemanager.model.LoanInstallment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+
+    List<LoanInstallment> findByLoanIdOrderByInstallmentNumber(Long loanId);
+}
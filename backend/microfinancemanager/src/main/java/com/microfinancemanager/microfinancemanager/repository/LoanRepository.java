@@ -1,17 +1,62 @@
 package com.microfinancemanager.microfinancemanager.repository;
 
+import com.microfinancemanager.microfinancemanager.dto.loan.LoanResponse;
 import com.microfinancemanager.microfinancemanager.model.Loan;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
-    
-    List<Loan> findByUser_UserId(Long userId);
-    
-    List<Loan> findByUser_UserIdAndStatus(Long userId, Loan.LoanStatus status);
-    
-    List<Loan> findByStatus(Loan.LoanStatus status);
+
+    // Listings select straight into LoanResponse, so no Loan entities are loaded or tracked
+    String LOAN_RESPONSE = "SELECT new com.microfinancemanager.microfinancemanager.dto.loan.LoanResponse(" +
+            "l.loanId, l.user.userId, l.account.accountId, l.amount, l.interestRate, l.repaymentPeriodMonths, " +
+            "CAST(l.interestMethod AS String), CAST(l.status AS String), l.requestDate, l.startDate, l.dueDate, " +
+            "l.principalBalance, l.totalRepaid, l.accruedPenalty) FROM Loan l ";
+
+    @Query(LOAN_RESPONSE + "WHERE l.user.userId = :userId AND " +
+           "(:status IS NULL OR l.status = :status) " +
+           "ORDER BY l.requestDate DESC, l.loanId DESC")
+    List<LoanResponse> findResponsesByUser(
+        @Param("userId") Long userId,
+        @Param("status") Loan.LoanStatus status
+    );
+
+    @Query(LOAN_RESPONSE + "WHERE " +
+           "(:status IS NULL OR l.status = :status) AND " +
+           "(:userId IS NULL OR l.user.userId = :userId) AND " +
+           "(:startDate IS NULL OR l.requestDate >= :startDate) AND " +
+           "(:endDate IS NULL OR l.requestDate <= :endDate) AND " +
+           "(:minAmount IS NULL OR l.amount >= :minAmount) AND " +
+           "(:maxAmount IS NULL OR l.amount <= :maxAmount) AND " +
+           "(:cursorTimestamp IS NULL OR l.requestDate < :cursorTimestamp OR " +
+           "(l.requestDate = :cursorTimestamp AND l.loanId < :cursorId)) " +
+           "ORDER BY l.requestDate DESC, l.loanId DESC")
+    List<LoanResponse> searchAfterCursor(
+        @Param("status") Loan.LoanStatus status,
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("minAmount") BigDecimal minAmount,
+        @Param("maxAmount") BigDecimal maxAmount,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Limit limit
+    );
+
+    // Every path that saves a Loan loads it this way, so the nightly jobs' set-based
+    // updates to the same row are never overwritten by a stale entity
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.loanId = :loanId")
+    Optional<Loan> findByIdForUpdate(@Param("loanId") Long loanId);
 }
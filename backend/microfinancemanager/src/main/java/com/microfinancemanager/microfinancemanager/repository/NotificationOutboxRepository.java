@@ -0,0 +1,9 @@
+package com.microfinancemanager.microfinancemanager.repository;
+
+import com.microfinancemanager.microfinancemanager.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+}
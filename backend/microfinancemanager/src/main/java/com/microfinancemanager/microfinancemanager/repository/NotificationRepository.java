@@ -1,27 +1,53 @@
 package com.microfinancemanager.microfinancemanager.repository;
 
+import com.microfinancemanager.microfinancemanager.dto.notification.NotificationResponse;
 import com.microfinancemanager.microfinancemanager.model.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    List<Notification> findByUser_UserId(Long userId);
-    
-    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId AND " +
+    // Inbox pages select straight into NotificationResponse, newest first
+    String NOTIFICATION_RESPONSE = "SELECT new com.microfinancemanager.microfinancemanager.dto.notification.NotificationResponse(" +
+            "n.notificationId, n.user.userId, CAST(n.type AS String), n.message, CAST(n.status AS String), " +
+            "n.relatedId, n.sentAt) FROM Notification n ";
+
+    @Query(NOTIFICATION_RESPONSE + "WHERE n.user.userId = :userId AND " +
            "(:status IS NULL OR n.status = :status) AND " +
-           "(:type IS NULL OR n.type = :type) " +
-           "ORDER BY n.sentAt DESC")
-    List<Notification> findByUserWithFilters(
+           "(:type IS NULL OR n.type = :type) AND " +
+           "(:cursorTimestamp IS NULL OR n.sentAt < :cursorTimestamp OR " +
+           "(n.sentAt = :cursorTimestamp AND n.notificationId < :cursorId)) " +
+           "ORDER BY n.sentAt DESC, n.notificationId DESC")
+    List<NotificationResponse> findByUserAfterCursor(
         @Param("userId") Long userId,
         @Param("status") Notification.NotificationStatus status,
-        @Param("type") Notification.NotificationType type
+        @Param("type") Notification.NotificationType type,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Limit limit
     );
     
     long countByUser_UserIdAndStatus(Long userId, Notification.NotificationStatus status);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = " +
+           "com.microfinancemanager.microfinancemanager.model.Notification.NotificationStatus.READ " +
+           "WHERE n.notificationId = :notificationId AND " +
+           "n.status = com.microfinancemanager.microfinancemanager.model.Notification.NotificationStatus.UNREAD")
+    int markReadIfUnread(@Param("notificationId") Long notificationId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = " +
+           "com.microfinancemanager.microfinancemanager.model.Notification.NotificationStatus.READ " +
+           "WHERE n.user.userId = :userId AND " +
+           "n.status = com.microfinancemanager.microfinancemanager.model.Notification.NotificationStatus.UNREAD")
+    int markAllReadForUser(@Param("userId") Long userId);
 }
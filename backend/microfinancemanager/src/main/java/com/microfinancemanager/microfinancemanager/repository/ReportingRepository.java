@@ -0,0 +1,45 @@
+package com.microfinancemanager.microfinancemanager.repository;
+
+import com.microfinancemanager.microfinancemanager.dto.report.DailyTotal;
+import com.microfinancemanager.microfinancemanager.dto.report.StatusCount;
+import com.microfinancemanager.microfinancemanager.dto.report.TypeTotal;
+import com.microfinancemanager.microfinancemanager.model.Transaction;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only aggregate queries for reports. Every method pushes the GROUP BY into
+ * MySQL and returns small projections; none of them loads an entity.
+ */
+@Repository
+public interface ReportingRepository extends org.springframework.data.repository.Repository<Transaction, Long> {
+
+    @Query("SELECT new com.microfinancemanager.microfinancemanager.dto.report.StatusCount(" +
+           "CAST(u.status AS String), COUNT(u)) FROM User u GROUP BY u.status")
+    List<StatusCount> countUsersByStatus();
+
+    @Query("SELECT new com.microfinancemanager.microfinancemanager.dto.report.StatusCount(" +
+           "CAST(a.status AS String), COUNT(a)) FROM Account a GROUP BY a.status")
+    List<StatusCount> countAccountsByStatus();
+
+    @Query("SELECT new com.microfinancemanager.microfinancemanager.dto.report.StatusCount(" +
+           "CAST(l.status AS String), COUNT(l)) FROM Loan l GROUP BY l.status")
+    List<StatusCount> countLoansByStatus();
+
+    @Query("SELECT new com.microfinancemanager.microfinancemanager.dto.report.TypeTotal(" +
+           "CAST(t.type AS String), COUNT(t), SUM(t.amount)) FROM Transaction t " +
+           "WHERE t.timestamp >= :from AND t.timestamp < :to " +
+           "GROUP BY t.type")
+    List<TypeTotal> sumTransactionsByType(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.microfinancemanager.microfinancemanager.dto.report.DailyTotal(" +
+           "CAST(t.timestamp AS LocalDate), COUNT(t), SUM(t.amount)) FROM Transaction t " +
+           "WHERE t.timestamp >= :from AND t.timestamp < :to " +
+           "GROUP BY CAST(t.timestamp AS LocalDate) " +
+           "ORDER BY CAST(t.timestamp AS LocalDate)")
+    List<DailyTotal> sumTransactionsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
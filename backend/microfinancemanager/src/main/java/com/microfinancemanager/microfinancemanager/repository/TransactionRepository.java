@@ -1,6 +1,7 @@
 package com.microfinancemanager.microfinancemanager.repository;
 
 import com.microfinancemanager.microfinancemanager.model.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -42,5 +43,46 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         Pageable pageable
     );
     
+    // Keyset variants of the two queries above: they seek past (cursorTimestamp, cursorId)
+    // on the (account_id, timestamp) index instead of skipping OFFSET rows, and run no COUNT
+    @Query("SELECT t FROM Transaction t WHERE t.account.accountId = :accountId AND " +
+           "(:type IS NULL OR t.type = :type) AND " +
+           "(:startDate IS NULL OR t.timestamp >= :startDate) AND " +
+           "(:endDate IS NULL OR t.timestamp <= :endDate) AND " +
+           "(:cursorTimestamp IS NULL OR t.timestamp < :cursorTimestamp OR " +
+           "(t.timestamp = :cursorTimestamp AND t.transactionId < :cursorId)) " +
+           "ORDER BY t.timestamp DESC, t.transactionId DESC")
+    List<Transaction> findByAccountAfterCursor(
+        @Param("accountId") Long accountId,
+        @Param("type") Transaction.TransactionType type,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Limit limit
+    );
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.user.userId = :userId AND " +
+           "(:type IS NULL OR t.type = :type) AND " +
+           "(:startDate IS NULL OR t.timestamp >= :startDate) AND " +
+           "(:endDate IS NULL OR t.timestamp <= :endDate) AND " +
+           "(:cursorTimestamp IS NULL OR t.timestamp < :cursorTimestamp OR " +
+           "(t.timestamp = :cursorTimestamp AND t.transactionId < :cursorId)) " +
+           "ORDER BY t.timestamp DESC, t.transactionId DESC")
+    List<Transaction> findByUserAfterCursor(
+        @Param("userId") Long userId,
+        @Param("type") Transaction.TransactionType type,
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Limit limit
+    );
+
     boolean existsByReferenceNumber(String referenceNumber);
+
+    List<Transaction> findByTransferReference(String transferReference);
+
+    @Query("SELECT t.account.accountId FROM Transaction t WHERE t.transferReference = :transferReference")
+    List<Long> findAccountIdsByTransferReference(@Param("transferReference") String transferReference);
 }
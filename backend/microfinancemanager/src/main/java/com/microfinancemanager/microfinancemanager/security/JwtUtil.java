@@ -1,6 +1,8 @@
 package com.microfinancemanager.microfinancemanager.security;
 
+import com.microfinancemanager.microfinancemanager.cache.BoundedExpiringCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,22 +12,35 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once, and the claims
+ * of a verified token are cached under the token's SHA-256 until the token expires,
+ * so a client sending the same token on every request has its signature checked once.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm}")
-    private String secret;
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final BoundedExpiringCache<String, Claims> verifiedClaims;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(@Value("${jwt.secret:mySecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm}") String secret,
+            @Value("${jwt.expiration:86400000}") Long expiration, // 24 hours
+            @Value("${jwt.claims-cache.max-entries:10000}") int claimsCacheSize) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedClaims = new BoundedExpiringCache<>(claimsCacheSize, Duration.ofMillis(expiration));
     }
 
     public String extractEmail(String token) {
@@ -41,16 +56,23 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the token and returns its claims, from the cache when the token was
+     * verified before. Throws a JwtException for a bad signature or an expired token.
+     */
+    public Claims extractAllClaims(String token) {
+        String key = hash(token);
+        Claims claims = verifiedClaims.get(key);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(key, claims, claims.getExpiration().getTime());
+        } else {
+            verifiedClaims.put(key, claims);
+        }
+        return claims;
     }
 
     public String generateToken(String email, Long userId, String role) {
@@ -66,12 +88,26 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        Date expiresAt = claims.getExpiration();
+        return claims.getSubject().equals(userDetails.getUsername())
+                && (expiresAt == null || expiresAt.after(new Date()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
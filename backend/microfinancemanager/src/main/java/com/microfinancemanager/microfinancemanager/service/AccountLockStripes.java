@@ -0,0 +1,89 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks keyed on account id. Postings against the same account
+ * queue on the same stripe, while postings against unrelated accounts run in parallel.
+ * The number of stripes is fixed, so memory does not grow with the number of accounts.
+ */
+@Component
+public class AccountLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public AccountLockStripes(
+            @Value("${transactions.lock-stripes:1024}") int stripeCount,
+            @Value("${transactions.lock-timeout-ms:5000}") long timeoutMillis) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public <T> T withLock(Long accountId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeFor(accountId)];
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe covering the given accounts in ascending stripe order, so two
+     * callers touching overlapping account sets can never wait on each other in a cycle.
+     */
+    public <T> T withLocks(Collection<Long> accountIds, Supplier<T> action) {
+        int[] indexes = accountIds.stream()
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeFor(Long accountId) {
+        // Fibonacci hashing spreads sequential account ids evenly across stripes
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Account is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for account lock");
+        }
+    }
+}
@@ -2,17 +2,19 @@ package com.microfinancemanager.microfinancemanager.service;
 
 import com.microfinancemanager.microfinancemanager.dto.account.AccountResponse;
 import com.microfinancemanager.microfinancemanager.dto.account.CreateAccountRequest;
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.common.KeysetCursor;
 import com.microfinancemanager.microfinancemanager.model.Account;
 import com.microfinancemanager.microfinancemanager.model.User;
 import com.microfinancemanager.microfinancemanager.repository.AccountRepository;
 import com.microfinancemanager.microfinancemanager.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,15 +23,28 @@ public class AccountService {
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final DashboardAggregateService dashboardAggregates;
 
     public List<AccountResponse> getUserAccounts(Long userId, Account.AccountStatus status) {
-        List<Account> accounts;
-        if (status != null) {
-            accounts = accountRepository.findByUser_UserIdAndStatus(userId, status);
-        } else {
-            accounts = accountRepository.findByUser_UserId(userId);
+        return accountRepository.findResponsesByUser(userId, status);
+    }
+
+    public CursorPage<AccountResponse> getUserAccountsAfter(Long userId, Account.AccountStatus status,
+            String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<AccountResponse> rows = accountRepository.findResponsesByUserAfterCursor(userId, status,
+                position != null ? position.timestamp() : null, position != null ? position.id() : null,
+                Limit.of(limit + 1));
+
+        // One extra row was fetched only to learn whether another page exists
+        boolean hasNext = rows.size() > limit;
+        List<AccountResponse> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            AccountResponse last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getAccountId()).encode();
         }
-        return accounts.stream().map(this::mapToAccountResponse).collect(Collectors.toList());
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
     public AccountResponse getAccountById(Long accountId) {
@@ -55,6 +70,7 @@ public class AccountService {
                 .build();
 
         account = accountRepository.save(account);
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 1, account.getBalance());
 
         // Send notification
         notificationService.sendNotification(
@@ -0,0 +1,97 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.model.Loan;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds monthly repayment schedules. Rates are annual percentages.
+ *
+ * FLAT charges interest on the original principal for the whole term and splits
+ * principal and interest evenly. REDUCING_BALANCE is a standard annuity: equal
+ * payments, with interest each month on the principal still outstanding. Amounts are
+ * rounded to cents per installment and the last installment absorbs the rounding, so
+ * the principal parts always add up to exactly the amount financed.
+ */
+@Component
+public class AmortizationEngine {
+
+    private static final BigDecimal MONTHS_PER_YEAR_PERCENT = BigDecimal.valueOf(1200);
+
+    public record Installment(int number, LocalDate dueDate, BigDecimal principal, BigDecimal interest,
+            BigDecimal total, BigDecimal cumulativeDue) {
+    }
+
+    /**
+     * @param firstNumber     number given to the first generated installment
+     * @param firstDueDate    due date of the first generated installment; later ones follow monthly
+     * @param cumulativeStart cumulative amount already due before the first generated installment
+     */
+    public List<Installment> schedule(BigDecimal principal, BigDecimal annualRatePercent, int installments,
+            Loan.InterestMethod method, int firstNumber, LocalDate firstDueDate, BigDecimal cumulativeStart) {
+        if (installments < 1) {
+            throw new IllegalArgumentException("A schedule needs at least one installment");
+        }
+        return method == Loan.InterestMethod.FLAT
+                ? flat(principal, annualRatePercent, installments, firstNumber, firstDueDate, cumulativeStart)
+                : reducingBalance(principal, annualRatePercent, installments, firstNumber, firstDueDate, cumulativeStart);
+    }
+
+    private List<Installment> flat(BigDecimal principal, BigDecimal annualRatePercent, int n,
+            int firstNumber, LocalDate firstDueDate, BigDecimal cumulative) {
+        BigDecimal totalInterest = principal.multiply(annualRatePercent).multiply(BigDecimal.valueOf(n))
+                .divide(MONTHS_PER_YEAR_PERCENT, 2, RoundingMode.HALF_UP);
+        BigDecimal principalPart = principal.divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+        BigDecimal interestPart = totalInterest.divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+
+        List<Installment> result = new ArrayList<>(n);
+        BigDecimal principalLeft = principal;
+        BigDecimal interestLeft = totalInterest;
+        for (int i = 0; i < n; i++) {
+            boolean last = i == n - 1;
+            BigDecimal p = last ? principalLeft : principalPart;
+            BigDecimal interest = last ? interestLeft : interestPart;
+            principalLeft = principalLeft.subtract(p);
+            interestLeft = interestLeft.subtract(interest);
+
+            BigDecimal total = p.add(interest);
+            cumulative = cumulative.add(total);
+            result.add(new Installment(firstNumber + i, firstDueDate.plusMonths(i), p, interest, total, cumulative));
+        }
+        return result;
+    }
+
+    private List<Installment> reducingBalance(BigDecimal principal, BigDecimal annualRatePercent, int n,
+            int firstNumber, LocalDate firstDueDate, BigDecimal cumulative) {
+        BigDecimal monthlyRate = annualRatePercent.divide(MONTHS_PER_YEAR_PERCENT, MathContext.DECIMAL64);
+        BigDecimal payment;
+        if (monthlyRate.signum() == 0) {
+            payment = principal.divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+        } else {
+            // payment = P * i / (1 - (1 + i)^-n)
+            BigDecimal discount = BigDecimal.ONE.add(monthlyRate).pow(-n, MathContext.DECIMAL64);
+            payment = principal.multiply(monthlyRate)
+                    .divide(BigDecimal.ONE.subtract(discount), MathContext.DECIMAL64)
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+
+        List<Installment> result = new ArrayList<>(n);
+        BigDecimal balance = principal;
+        for (int i = 0; i < n; i++) {
+            BigDecimal interest = balance.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal p = i == n - 1 ? balance : payment.subtract(interest).min(balance);
+            balance = balance.subtract(p);
+
+            BigDecimal total = p.add(interest);
+            cumulative = cumulative.add(total);
+            result.add(new Installment(firstNumber + i, firstDueDate.plusMonths(i), p, interest, total, cumulative));
+        }
+        return result;
+    }
+}
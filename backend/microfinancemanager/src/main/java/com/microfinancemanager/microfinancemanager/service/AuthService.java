@@ -14,6 +14,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -23,6 +25,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final NotificationService notificationService;
+    private final DashboardAggregateService dashboardAggregates;
 
     @Transactional
     public UserResponse register(RegisterRequest request) {
@@ -40,6 +43,7 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        dashboardAggregates.record(DashboardAggregateService.Metric.USERS, 1, BigDecimal.ZERO);
 
         // Send notification
         notificationService.sendNotification(
@@ -0,0 +1,278 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.dto.notification.BroadcastJobResponse;
+import com.microfinancemanager.microfinancemanager.dto.notification.BroadcastRequest;
+import com.microfinancemanager.microfinancemanager.model.BroadcastJob;
+import com.microfinancemanager.microfinancemanager.model.Notification;
+import com.microfinancemanager.microfinancemanager.model.User;
+import com.microfinancemanager.microfinancemanager.repository.BroadcastJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends one notification to every user in a segment (status, role, has an ACTIVE
+ * loan).
+ *
+ * A broadcast is recorded in broadcast_jobs and written in the background. Users are
+ * walked in user_id keyset order; each chunk is inserted into notifications with one
+ * INSERT ... SELECT, bypassing the outbox, and the job's progress is advanced in the same
+ * transaction, so a job interrupted by a restart resumes exactly where it stopped.
+ * Chunks are paced to a maximum rate to keep the write load on the database bounded,
+ * and a scheduler_locks lease per job keeps two nodes from writing the same job.
+ */
+@Service
+@Slf4j
+public class BroadcastService {
+
+    private static final String SEGMENT =
+            "(:userStatus IS NULL OR u.status = :userStatus) AND (:role IS NULL OR u.role = :role) AND " +
+            "(:hasActiveLoan IS NULL OR :hasActiveLoan = EXISTS " +
+            "(SELECT 1 FROM loans l WHERE l.user_id = u.user_id AND l.status = 'ACTIVE'))";
+
+    private static final String NEXT_CHUNK =
+            "SELECT u.user_id FROM users u WHERE u.user_id > :afterId AND " + SEGMENT +
+            " ORDER BY u.user_id LIMIT :limit";
+
+    private static final String INSERT_CHUNK =
+            "INSERT INTO notifications (user_id, type, message, status, related_id, sent_at) " +
+            "SELECT user_id, :type, :message, 'UNREAD', NULL, NOW() FROM users WHERE user_id IN (:ids)";
+
+    private static final String ADVANCE =
+            "UPDATE broadcast_jobs SET sent = sent + :sent, last_user_id = :upToId WHERE job_id = :jobId";
+
+    private final BroadcastJobRepository broadcastJobRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLock schedulerLock;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationStreamHub streamHub;
+    private final ExecutorService runner;
+    private final int chunkSize;
+    private final int maxPerSecond;
+    private final Duration lease;
+
+    public BroadcastService(BroadcastJobRepository broadcastJobRepository,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchedulerLock schedulerLock,
+            UnreadNotificationCounters unreadCounters,
+            NotificationStreamHub streamHub,
+            @Value("${notifications.broadcast.chunk-size:5000}") int chunkSize,
+            @Value("${notifications.broadcast.max-per-second:20000}") int maxPerSecond,
+            @Value("${notifications.broadcast.lease-seconds:300}") long leaseSeconds) {
+        this.broadcastJobRepository = broadcastJobRepository;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.unreadCounters = unreadCounters;
+        this.streamHub = streamHub;
+        this.chunkSize = chunkSize;
+        this.maxPerSecond = maxPerSecond;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        // One broadcast at a time per node; later ones queue behind it
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    public BroadcastJobResponse startBroadcast(BroadcastRequest request) {
+        BroadcastJob job = BroadcastJob.builder()
+                .type(Notification.NotificationType.valueOf(request.getType()))
+                .message(request.getMessage())
+                .userStatus(request.getUserStatus() != null ? User.UserStatus.valueOf(request.getUserStatus()) : null)
+                .userRole(request.getRole() != null ? User.UserRole.valueOf(request.getRole()) : null)
+                .hasActiveLoan(request.getHasActiveLoan())
+                .build();
+        job.setTotalRecipients(countRecipients(job));
+        job = broadcastJobRepository.save(job);
+
+        Long jobId = job.getJobId();
+        runner.execute(() -> run(jobId));
+        return mapToBroadcastJobResponse(job);
+    }
+
+    public BroadcastJobResponse getBroadcast(Long jobId) {
+        BroadcastJob job = broadcastJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Broadcast not found"));
+        return mapToBroadcastJobResponse(job);
+    }
+
+    // Picks up broadcasts that were still being written when the application stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        broadcastJobRepository.findByStatusIn(
+                List.of(BroadcastJob.BroadcastStatus.PENDING, BroadcastJob.BroadcastStatus.RUNNING))
+                .forEach(job -> runner.execute(() -> run(job.getJobId())));
+    }
+
+    private void run(Long jobId) {
+        String lockName = "broadcast-" + jobId;
+        try {
+            schedulerLock.runExclusively(lockName, lease, () -> send(jobId, lockName));
+        } catch (RuntimeException e) {
+            log.error("Broadcast {} failed: {}", jobId, e.getMessage());
+            markFailed(jobId, lockName, e);
+        }
+    }
+
+    // Only when no other node has picked the job up, and from its current row, so a
+    // job another node is finishing or has finished is left alone
+    private void markFailed(Long jobId, String lockName, RuntimeException e) {
+        if (!schedulerLock.tryAcquire(lockName, lease)) {
+            log.info("Broadcast {} is being sent by another node, not marking it failed", jobId);
+            return;
+        }
+        try {
+            broadcastJobRepository.findById(jobId).ifPresent(job -> {
+                if (job.getStatus() == BroadcastJob.BroadcastStatus.COMPLETED
+                        || job.getStatus() == BroadcastJob.BroadcastStatus.FAILED) {
+                    return;
+                }
+                job.setStatus(BroadcastJob.BroadcastStatus.FAILED);
+                String error = String.valueOf(e.getMessage());
+                job.setErrorMessage(error.length() > 255 ? error.substring(0, 255) : error);
+                job.setFinishedAt(LocalDateTime.now());
+                broadcastJobRepository.save(job);
+            });
+        } finally {
+            schedulerLock.release(lockName);
+        }
+    }
+
+    private void send(Long jobId, String lockName) {
+        BroadcastJob job = broadcastJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == BroadcastJob.BroadcastStatus.COMPLETED
+                || job.getStatus() == BroadcastJob.BroadcastStatus.FAILED) {
+            return;
+        }
+        job.setStatus(BroadcastJob.BroadcastStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job = broadcastJobRepository.save(job);
+
+        MapSqlParameterSource params = segmentParams(job)
+                .addValue("jobId", jobId)
+                .addValue("type", job.getType().name())
+                .addValue("message", job.getMessage())
+                .addValue("afterId", job.getLastUserId())
+                .addValue("limit", chunkSize);
+
+        long started = System.currentTimeMillis();
+        long sentThisRun = 0;
+        while (true) {
+            List<Long> recipients = transactionTemplate.execute(status -> sendChunk(params));
+            if (recipients == null || recipients.isEmpty()) {
+                break;
+            }
+            sentThisRun += recipients.size();
+            params.addValue("afterId", recipients.get(recipients.size() - 1));
+            if (!schedulerLock.renew(lockName, lease)) {
+                // Progress is committed with each chunk; the node that took over resumes from it
+                log.warn("Broadcast {} lease lost after {} users, leaving the job to the node that took it",
+                        jobId, sentThisRun);
+                return;
+            }
+            throttle(started, sentThisRun);
+        }
+
+        job = broadcastJobRepository.findById(jobId).orElseThrow();
+        job.setStatus(BroadcastJob.BroadcastStatus.COMPLETED);
+        job.setFinishedAt(LocalDateTime.now());
+        broadcastJobRepository.save(job);
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Broadcast {} sent to {} users in {} ms ({}/s)", jobId, job.getSent(), elapsed,
+                sentThisRun * 1000 / elapsed);
+    }
+
+    private List<Long> sendChunk(MapSqlParameterSource params) {
+        List<Long> recipients = namedParameterJdbcTemplate.queryForList(NEXT_CHUNK, params, Long.class);
+        if (recipients.isEmpty()) {
+            return recipients;
+        }
+        MapSqlParameterSource chunk = new MapSqlParameterSource(params.getValues())
+                .addValue("ids", recipients)
+                .addValue("upToId", recipients.get(recipients.size() - 1))
+                .addValue("sent", recipients.size());
+        namedParameterJdbcTemplate.update(INSERT_CHUNK, chunk);
+        namedParameterJdbcTemplate.update(ADVANCE, chunk);
+
+        unreadCounters.adjustAfterCommit(recipients.stream()
+                .collect(Collectors.toMap(Function.identity(), id -> 1L)));
+        streamHub.publishAfterCommit(recipients);
+        return recipients;
+    }
+
+    private long countRecipients(BroadcastJob job) {
+        Long count = namedParameterJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users u WHERE " + SEGMENT, segmentParams(job), Long.class);
+        return count != null ? count : 0;
+    }
+
+    private MapSqlParameterSource segmentParams(BroadcastJob job) {
+        return new MapSqlParameterSource()
+                .addValue("userStatus", job.getUserStatus() != null ? job.getUserStatus().name() : null)
+                .addValue("role", job.getUserRole() != null ? job.getUserRole().name() : null)
+                .addValue("hasActiveLoan", job.getHasActiveLoan());
+    }
+
+    // Sleeps just long enough to keep the overall rate at or under max-per-second
+    private void throttle(long started, long sent) {
+        long due = started + sent * 1000 / maxPerSecond;
+        long wait = due - System.currentTimeMillis();
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending broadcast");
+        }
+    }
+
+    private BroadcastJobResponse mapToBroadcastJobResponse(BroadcastJob job) {
+        Long total = job.getTotalRecipients();
+        Integer percent = total == null ? null
+                : total == 0 ? 100
+                : (int) Math.min(100, job.getSent() * 100 / total);
+        return BroadcastJobResponse.builder()
+                .jobId(job.getJobId())
+                .type(job.getType().name())
+                .status(job.getStatus().name())
+                .userStatus(job.getUserStatus() != null ? job.getUserStatus().name() : null)
+                .role(job.getUserRole() != null ? job.getUserRole().name() : null)
+                .hasActiveLoan(job.getHasActiveLoan())
+                .totalRecipients(total)
+                .sent(job.getSent())
+                .percentComplete(percent)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.model.Loan;
+import com.microfinancemanager.microfinancemanager.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Running totals behind the admin dashboard, kept in dashboard_counters.
+ *
+ * Every service that inserts or changes a row the dashboard reports on calls
+ * {@link #record} with the delta it caused. Deltas are collected per transaction and
+ * written just before commit as one upsert per metric, in metric order, so they
+ * commit or roll back together with the change itself. Each metric is spread over
+ * a few slot rows, picked at random per transaction, so concurrent postings do not
+ * all queue on one hot row; reading a metric sums its slots.
+ */
+@Service
+@Slf4j
+public class DashboardAggregateService implements SmartInitializingSingleton {
+
+    public enum Metric {
+        USERS,
+        ACTIVE_USERS,
+        ACCOUNTS,           // amount = total account balance
+        TRANSACTIONS,       // amount = total transaction amount
+        LOANS,              // amount = total loan amount
+        ACTIVE_LOANS,       // amount = outstanding principal of active loans
+        PENDING_LOANS,
+        REPAYMENTS          // amount = total repayment amount
+    }
+
+    public record Totals(long count, BigDecimal amount) {
+    }
+
+    private static final String UPSERT =
+            "INSERT INTO dashboard_counters (metric, slot, count_value, amount_value) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE count_value = count_value + VALUES(count_value), " +
+            "amount_value = amount_value + VALUES(amount_value)";
+
+    private static final String REBUILD_LOCK = "dashboard-counters-rebuild";
+
+    // One row per metric, in Metric order
+    private static final String BASE_TOTALS =
+            "SELECT 'USERS', COUNT(*), 0 FROM users " +
+            "UNION ALL SELECT 'ACTIVE_USERS', COUNT(*), 0 FROM users WHERE status = 'ACTIVE' " +
+            "UNION ALL SELECT 'ACCOUNTS', COUNT(*), COALESCE(SUM(balance), 0) FROM accounts " +
+            "UNION ALL SELECT 'TRANSACTIONS', COUNT(*), COALESCE(SUM(amount), 0) FROM transactions " +
+            "UNION ALL SELECT 'LOANS', COUNT(*), COALESCE(SUM(amount), 0) FROM loans " +
+            "UNION ALL SELECT 'ACTIVE_LOANS', COUNT(*), COALESCE(SUM(principal_balance), 0) FROM loans WHERE status = 'ACTIVE' " +
+            "UNION ALL SELECT 'PENDING_LOANS', COUNT(*), 0 FROM loans WHERE status = 'PENDING' " +
+            "UNION ALL SELECT 'REPAYMENTS', COUNT(*), COALESCE(SUM(amount), 0) FROM repayments";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLock schedulerLock;
+    private final int slots;
+
+    public DashboardAggregateService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchedulerLock schedulerLock,
+            @Value("${reports.dashboard.counter-slots:8}") int slots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.slots = Math.max(1, slots);
+    }
+
+    public void record(Metric metric, long countDelta, BigDecimal amountDelta) {
+        if (countDelta == 0 && (amountDelta == null || amountDelta.signum() == 0)) {
+            return;
+        }
+        BigDecimal amount = amountDelta != null ? amountDelta : BigDecimal.ZERO;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(metric, randomSlot(), countDelta, amount);
+            return;
+        }
+
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas(randomSlot());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(metric, countDelta, amount);
+    }
+
+    public void recordUserStatusChange(User.UserStatus previous, User.UserStatus current) {
+        if (previous == current) {
+            return;
+        }
+        if (previous == User.UserStatus.ACTIVE) {
+            record(Metric.ACTIVE_USERS, -1, BigDecimal.ZERO);
+        }
+        if (current == User.UserStatus.ACTIVE) {
+            record(Metric.ACTIVE_USERS, 1, BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Moves a loan between the PENDING and ACTIVE counters and keeps the outstanding
+     * principal of active loans in step with its principal balance.
+     */
+    public void recordLoanChange(Loan.LoanStatus previousStatus, BigDecimal previousPrincipal, Loan loan) {
+        if (previousStatus == Loan.LoanStatus.PENDING) {
+            record(Metric.PENDING_LOANS, -1, BigDecimal.ZERO);
+        }
+        if (loan.getStatus() == Loan.LoanStatus.PENDING) {
+            record(Metric.PENDING_LOANS, 1, BigDecimal.ZERO);
+        }
+        if (previousStatus == Loan.LoanStatus.ACTIVE) {
+            record(Metric.ACTIVE_LOANS, -1, previousPrincipal.negate());
+        }
+        if (loan.getStatus() == Loan.LoanStatus.ACTIVE) {
+            record(Metric.ACTIVE_LOANS, 1, loan.getPrincipalBalance());
+        }
+    }
+
+    public Map<Metric, Totals> totals() {
+        Map<Metric, Totals> totals = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            totals.put(metric, new Totals(0, BigDecimal.ZERO));
+        }
+        jdbcTemplate.query(
+                "SELECT metric, SUM(count_value), SUM(amount_value) FROM dashboard_counters GROUP BY metric",
+                rs -> {
+                    BigDecimal amount = rs.getBigDecimal(3);
+                    totals.put(Metric.valueOf(rs.getString(1)),
+                            new Totals(rs.getLong(2), amount != null ? amount : BigDecimal.ZERO));
+                });
+        return totals;
+    }
+
+    /**
+     * Seeds the counters from the base tables the first time the application starts
+     * against a database that has none. Runs once all beans are created, before the
+     * web server starts accepting requests; the lease keeps nodes starting together
+     * from seeding twice, and a node that loses it starts without waiting.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schedulerLock.runExclusively(REBUILD_LOCK, Duration.ofMinutes(10), this::rebuildIfEmpty);
+    }
+
+    private void rebuildIfEmpty() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // The locking read also locks the empty table's gap, so postings on nodes that
+            // are already serving wait in their upsert until the seed commits. Their base
+            // rows are not in the snapshot taken below, so they are counted exactly once.
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM dashboard_counters FOR UPDATE", Integer.class);
+            if (rows == null || rows != 0) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            List<Object[]> seed = jdbcTemplate.query(BASE_TOTALS, (rs, rowNum) -> new Object[] {
+                    rs.getString(1), 0, rs.getLong(2), rs.getBigDecimal(3)});
+            jdbcTemplate.batchUpdate(UPSERT, seed);
+            log.info("Rebuilt dashboard counters from base tables in {} ms", System.currentTimeMillis() - started);
+        });
+    }
+
+    private void apply(Metric metric, int slot, long countDelta, BigDecimal amountDelta) {
+        jdbcTemplate.update(UPSERT, metric.name(), slot, countDelta, amountDelta);
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    private final class PendingDeltas implements TransactionSynchronization {
+
+        private final int slot;
+        private final long[] counts = new long[Metric.values().length];
+        private final BigDecimal[] amounts = new BigDecimal[Metric.values().length];
+
+        PendingDeltas(int slot) {
+            this.slot = slot;
+        }
+
+        void add(Metric metric, long countDelta, BigDecimal amountDelta) {
+            int i = metric.ordinal();
+            counts[i] += countDelta;
+            amounts[i] = amounts[i] == null ? amountDelta : amounts[i].add(amountDelta);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Metric (ordinal) order keeps lock acquisition on counter rows consistent
+            for (Metric metric : Metric.values()) {
+                int i = metric.ordinal();
+                if (counts[i] != 0 || (amounts[i] != null && amounts[i].signum() != 0)) {
+                    apply(metric, slot, counts[i], amounts[i] != null ? amounts[i] : BigDecimal.ZERO);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DashboardAggregateService.this);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.cache.BoundedExpiringCache;
+import com.microfinancemanager.microfinancemanager.exception.IdempotencyKeyReusedException;
+import com.microfinancemanager.microfinancemanager.model.IdempotencyRecord;
+import com.microfinancemanager.microfinancemanager.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried money-moving requests that carry an Idempotency-Key header.
+ * Hot retries are answered from a bounded in-memory cache; the idempotency_keys table
+ * keeps replays working after a restart or on another node.
+ *
+ * Keys belong to the authenticated caller, so two clients that happen to pick the same
+ * key never see each other's responses. A hash of the request body is stored with the
+ * response, and a retry whose body differs is rejected instead of replayed.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private record StoredResponse(String requestHash, Object response) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final BoundedExpiringCache<String, StoredResponse> recentResponses;
+    private final long retentionHours;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.cache-max-entries:10000}") int cacheMaxEntries,
+            @Value("${idempotency.cache-ttl-minutes:10}") long cacheTtlMinutes,
+            @Value("${idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.recentResponses = new BoundedExpiringCache<>(cacheMaxEntries, Duration.ofMinutes(cacheTtlMinutes));
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Replays the stored response for the caller's key if there is one, otherwise runs the
+     * posting. The posting must call {@link #recordResponse} with the same request inside
+     * its own database transaction. Throws IdempotencyKeyReusedException when the key was
+     * used before with a different request body.
+     */
+    public <T> T execute(IdempotencyRecord.Scope scope, String idempotencyKey, Object request,
+            Class<T> responseType, Supplier<T> posting) {
+        if (idempotencyKey == null) {
+            return posting.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String owner = currentOwner();
+        String requestHash = hash(request);
+        Optional<T> replay = findResponse(scope, owner, idempotencyKey, requestHash, responseType);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        try {
+            return posting.get();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first and our posting was rolled back
+            return findResponse(scope, owner, idempotencyKey, requestHash, responseType).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Stores the response in the caller's transaction, so the key and the money movement
+     * commit or roll back together. No-op when the request carried no key.
+     */
+    public void recordResponse(IdempotencyRecord.Scope scope, String idempotencyKey, Object request,
+            Object response) {
+        if (idempotencyKey == null) {
+            return;
+        }
+
+        String owner = currentOwner();
+        StoredResponse stored = new StoredResponse(hash(request), response);
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .scope(scope)
+                .owner(owner)
+                .idempotencyKey(idempotencyKey)
+                .requestHash(stored.requestHash())
+                .responseBody(objectMapper.writeValueAsString(response))
+                .build();
+        idempotencyRecordRepository.saveAndFlush(record);
+
+        String cacheKey = cacheKey(scope, owner, idempotencyKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentResponses.put(cacheKey, stored);
+                }
+            });
+        } else {
+            recentResponses.put(cacheKey, stored);
+        }
+    }
+
+    private <T> Optional<T> findResponse(IdempotencyRecord.Scope scope, String owner, String idempotencyKey,
+            String requestHash, Class<T> responseType) {
+        String cacheKey = cacheKey(scope, owner, idempotencyKey);
+        StoredResponse stored = recentResponses.get(cacheKey);
+        if (stored == null) {
+            stored = idempotencyRecordRepository.findByScopeAndOwnerAndIdempotencyKey(scope, owner, idempotencyKey)
+                    .map(record -> new StoredResponse(record.getRequestHash(),
+                            objectMapper.readValue(record.getResponseBody(), responseType)))
+                    .orElse(null);
+            if (stored == null) {
+                return Optional.empty();
+            }
+            recentResponses.put(cacheKey, stored);
+        }
+
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(
+                    "Idempotency-Key was already used with a different request body");
+        }
+        return Optional.of(responseType.cast(stored.response()));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        recentResponses.evictExpired();
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private String cacheKey(IdempotencyRecord.Scope scope, String owner, String idempotencyKey) {
+        return scope.name() + ':' + owner + ':' + idempotencyKey;
+    }
+
+    private String currentOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : ANONYMOUS;
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
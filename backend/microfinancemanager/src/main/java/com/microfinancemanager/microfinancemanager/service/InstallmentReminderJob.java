@@ -0,0 +1,181 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily PAYMENT_DUE reminders for pending installments of ACTIVE loans that fall due
+ * within the next few days.
+ *
+ * Installments are walked in (due_date, installment_id) keyset order on
+ * idx_installments_status_due. Each batch queues its reminders with one
+ * INSERT ... SELECT into the notification outbox and stamps reminder_sent_at in the
+ * same transaction, so an installment is reminded once no matter how often the job
+ * runs. Batches run one at a time on a single connection and are paced to a maximum
+ * rate, leaving the pool to the request threads. The window starts today, so
+ * installments missed by a run that did not happen are still picked up.
+ */
+@Component
+@Slf4j
+public class InstallmentReminderJob {
+
+    static final String JOB_NAME = "installment-reminders";
+
+    private static final String LOCK_BATCH =
+            "SELECT i.installment_id, i.due_date FROM loan_installments i JOIN loans l ON l.loan_id = i.loan_id " +
+            "WHERE i.status = 'PENDING' AND i.due_date <= :windowEnd " +
+            "AND (i.due_date > :afterDate OR (i.due_date = :afterDate AND i.installment_id > :afterId)) " +
+            "AND i.reminder_sent_at IS NULL AND l.status = 'ACTIVE' " +
+            "ORDER BY i.due_date, i.installment_id LIMIT :limit FOR UPDATE OF i";
+
+    private static final String QUEUE_REMINDERS =
+            "INSERT INTO notification_outbox (user_id, type, message, related_id) " +
+            "SELECT l.user_id, 'PAYMENT_DUE', CONCAT('Installment ', i.installment_number, ' of ', i.total_due, " +
+            "' on loan #', i.loan_id, ' is due on ', i.due_date, '.'), i.loan_id " +
+            "FROM loan_installments i JOIN loans l ON l.loan_id = i.loan_id WHERE i.installment_id IN (:ids)";
+
+    private static final String MARK_REMINDED =
+            "UPDATE loan_installments SET reminder_sent_at = NOW() WHERE installment_id IN (:ids)";
+
+    /**
+     * Outcome of the last completed run. lagSeconds is the longest time between an
+     * installment entering the reminder window and its reminder being queued.
+     */
+    public record Stats(LocalDate runDate, long sent, long batches, long elapsedMillis, long perSecond,
+            long lagSeconds, LocalDateTime finishedAt) {
+    }
+
+    private record Batch(long lastId, LocalDate lastDueDate, LocalDate firstDueDate, int size) {
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLock schedulerLock;
+    private final int daysAhead;
+    private final int batchSize;
+    private final int maxPerSecond;
+    private final Duration lease;
+
+    private volatile Stats lastRun;
+
+    public InstallmentReminderJob(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchedulerLock schedulerLock,
+            @Value("${loans.reminders.days-ahead:3}") int daysAhead,
+            @Value("${loans.reminders.batch-size:1000}") int batchSize,
+            @Value("${loans.reminders.max-per-second:5000}") int maxPerSecond,
+            @Value("${loans.reminders.lease-seconds:600}") long leaseSeconds) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.daysAhead = daysAhead;
+        this.batchSize = batchSize;
+        this.maxPerSecond = maxPerSecond;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${loans.reminders.cron:0 0 7 * * *}")
+    public void runScheduled() {
+        // Every node fires the schedule; those that lose the lease just skip the day
+        schedulerLock.runExclusively(JOB_NAME, lease, () -> lastRun = remind(LocalDate.now()));
+    }
+
+    /**
+     * Queues reminders for installments due between runDate and runDate + days-ahead.
+     * Throws if another node currently holds the job's lease.
+     */
+    public Stats run(LocalDate runDate) {
+        boolean ran = schedulerLock.runExclusively(JOB_NAME, lease, () -> lastRun = remind(runDate));
+        if (!ran) {
+            throw new RuntimeException("Installment reminders are already running on another node");
+        }
+        return lastRun;
+    }
+
+    public Stats getLastRun() {
+        return lastRun;
+    }
+
+    private Stats remind(LocalDate runDate) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("windowEnd", Date.valueOf(runDate.plusDays(daysAhead)))
+                .addValue("afterDate", Date.valueOf(runDate))
+                .addValue("afterId", 0L)
+                .addValue("limit", batchSize);
+
+        long started = System.currentTimeMillis();
+        long sent = 0;
+        long batches = 0;
+        long lagSeconds = 0;
+        while (true) {
+            Batch batch = transactionTemplate.execute(status -> remindBatch(params));
+            if (batch == null || batch.size() == 0) {
+                break;
+            }
+            sent += batch.size();
+            batches++;
+            // The earliest due date in the batch has waited longest since its window opened
+            LocalDateTime windowOpened = batch.firstDueDate().minusDays(daysAhead).atStartOfDay();
+            lagSeconds = Math.max(lagSeconds, Duration.between(windowOpened, LocalDateTime.now()).toSeconds());
+
+            params.addValue("afterDate", Date.valueOf(batch.lastDueDate()))
+                    .addValue("afterId", batch.lastId());
+            if (!schedulerLock.renew(JOB_NAME, lease)) {
+                throw new RuntimeException("Lost the installment reminder lease");
+            }
+            throttle(started, sent);
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        Stats stats = new Stats(runDate, sent, batches, elapsed, sent * 1000 / elapsed, lagSeconds,
+                LocalDateTime.now());
+        log.info("Installment reminders for {}: {} queued in {} batches, {} ms ({}/s), max lag {} s",
+                runDate, sent, batches, elapsed, stats.perSecond(), lagSeconds);
+        return stats;
+    }
+
+    private Batch remindBatch(MapSqlParameterSource params) {
+        List<Long> ids = new ArrayList<>();
+        List<LocalDate> dueDates = new ArrayList<>();
+        namedParameterJdbcTemplate.query(LOCK_BATCH, params, rs -> {
+            ids.add(rs.getLong(1));
+            dueDates.add(rs.getDate(2).toLocalDate());
+        });
+        if (ids.isEmpty()) {
+            return new Batch(0, null, null, 0);
+        }
+
+        MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+        namedParameterJdbcTemplate.update(QUEUE_REMINDERS, batch);
+        namedParameterJdbcTemplate.update(MARK_REMINDED, batch);
+        int last = ids.size() - 1;
+        return new Batch(ids.get(last), dueDates.get(last), dueDates.get(0), ids.size());
+    }
+
+    // Sleeps just long enough to keep the overall rate at or under max-per-second
+    private void throttle(long started, long sent) {
+        long due = started + sent * 1000 / maxPerSecond;
+        long wait = due - System.currentTimeMillis();
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending installment reminders");
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly accrual of late-payment penalty on ACTIVE loans past their due date.
+ *
+ * Contractual interest is not accrued here: it is part of the repayment schedule
+ * (see AmortizationEngine) and is collected through the installments. The penalty is
+ * charged per day on the principal still outstanding and accumulates in
+ * accrued_penalty, which RepaymentService settles before anything else. A loan that
+ * was not accrued for a few days, because a run was missed or failed, is charged for
+ * every day since its last accrual (or since its due date) in one step.
+ *
+ * DEFAULTED loans are deliberately left out: once LoanDefaultJob moves a loan to
+ * DEFAULTED it is on non-accrual, and its penalty stays at what had accrued by then.
+ * Recovery is tracked on the principal, and repayments still settle that penalty first.
+ *
+ * Overdue loan ids are walked in keyset order and cut into fixed-size chunks. The
+ * chunks of a wave are processed in parallel, each in its own transaction: lock the
+ * chunk's loans and apply all increments with one batched UPDATE. After each wave the
+ * highest loan id is checkpointed, so a run that dies resumes where it stopped. Each
+ * loan also carries last_accrual_date, which makes a chunk that is processed twice a
+ * no-op.
+ *
+ * A run holds the job's SchedulerLock lease, renewed after every wave, so only one
+ * node accrues at a time. The class and job name predate the switch from interest to
+ * penalty accrual; the name is kept so existing checkpoints still resume.
+ */
+@Component
+@Slf4j
+public class InterestAccrualJob {
+
+    static final String JOB_NAME = "interest-accrual";
+
+    private static final BigDecimal DAYS_PER_YEAR_PERCENT = BigDecimal.valueOf(36500);
+
+    private static final String LOCK_CHUNK =
+            "SELECT loan_id, principal_balance, " +
+            "DATEDIFF(:runDate, GREATEST(COALESCE(last_accrual_date, due_date), due_date)) FROM loans " +
+            "WHERE loan_id IN (:ids) AND status = 'ACTIVE' AND due_date < :runDate " +
+            "AND (last_accrual_date IS NULL OR last_accrual_date < :runDate) FOR UPDATE";
+
+    private static final String APPLY_ACCRUAL =
+            "UPDATE loans SET accrued_penalty = accrued_penalty + ?, last_accrual_date = ? WHERE loan_id = ?";
+
+    private record Accrual(long loanId, BigDecimal penalty) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointStore checkpoints;
+    private final SchedulerLock schedulerLock;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int chunkSize;
+    private final BigDecimal penaltyRatePercent;
+    private final Duration lease;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            JobCheckpointStore checkpoints,
+            SchedulerLock schedulerLock,
+            @Value("${loans.accrual.workers:4}") int workerCount,
+            @Value("${loans.accrual.chunk-size:500}") int chunkSize,
+            @Value("${loans.accrual.penalty-rate-percent:24.00}") BigDecimal penaltyRatePercent,
+            @Value("${loans.accrual.lease-seconds:600}") long leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpoints = checkpoints;
+        this.schedulerLock = schedulerLock;
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+        this.penaltyRatePercent = penaltyRatePercent;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "interest-accrual");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(cron = "${loans.accrual.cron:0 30 1 * * *}")
+    public void runNightly() {
+        // Every node fires the schedule; those that lose the lease just skip the night
+        runExclusively(LocalDate.now(), new HashMap<>());
+    }
+
+    /**
+     * Accrues late-payment penalty for runDate. Returns a summary, or throws if a run
+     * is already in progress on this node or another node holds the job's lease.
+     */
+    public Map<String, Object> run(LocalDate runDate) {
+        Map<String, Object> summary = new HashMap<>();
+        if (!runExclusively(runDate, summary)) {
+            throw new RuntimeException("Penalty accrual is already running");
+        }
+        return summary;
+    }
+
+    // The lease is re-entrant for its holder, so it does not stop a second run on the
+    // node that holds it; the local flag does
+    private boolean runExclusively(LocalDate runDate, Map<String, Object> summary) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            return schedulerLock.runExclusively(JOB_NAME, lease, () -> summary.putAll(accrue(runDate)));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> accrue(LocalDate runDate) {
+        JobCheckpointStore.Checkpoint checkpoint = checkpoints.load(JOB_NAME);
+        long lastKey = 0;
+        long processed = 0;
+        if (checkpoint != null && runDate.equals(checkpoint.runDate())) {
+            if (checkpoint.completed()) {
+                log.info("Penalty accrual for {} already completed", runDate);
+                return summary(runDate, checkpoint.processed(), 0, true);
+            }
+            lastKey = checkpoint.lastKey();
+            processed = checkpoint.processed();
+            log.info("Resuming penalty accrual for {} after loan {}", runDate, lastKey);
+        }
+
+        long started = System.currentTimeMillis();
+        long accruedThisRun = 0;
+        while (true) {
+            // Read the next wave of chunk boundaries, then work the chunks in parallel
+            List<List<Long>> wave = new ArrayList<>(workerCount);
+            long waveEnd = lastKey;
+            for (int i = 0; i < workerCount; i++) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT loan_id FROM loans WHERE status = 'ACTIVE' AND due_date < ? AND loan_id > ? " +
+                        "ORDER BY loan_id LIMIT ?",
+                        Long.class, Date.valueOf(runDate), waveEnd, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                wave.add(ids);
+                waveEnd = ids.get(ids.size() - 1);
+            }
+            if (wave.isEmpty()) {
+                break;
+            }
+
+            List<Future<Integer>> results = new ArrayList<>(wave.size());
+            for (List<Long> ids : wave) {
+                results.add(workers.submit(() -> transactionTemplate.execute(status -> accrueChunk(ids, runDate))));
+            }
+            for (Future<Integer> result : results) {
+                accruedThisRun += await(result);
+            }
+
+            lastKey = waveEnd;
+            processed += wave.stream().mapToInt(List::size).sum();
+            checkpoints.save(JOB_NAME, runDate, lastKey, processed, false);
+            if (!schedulerLock.renew(JOB_NAME, lease)) {
+                throw new RuntimeException("Lost the penalty accrual lease");
+            }
+        }
+        checkpoints.save(JOB_NAME, runDate, lastKey, processed, true);
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Penalty accrual for {}: {} loans scanned, {} accrued in {} ms ({} loans/s)",
+                runDate, processed, accruedThisRun, elapsed, accruedThisRun * 1000 / elapsed);
+        return summary(runDate, processed, accruedThisRun, true);
+    }
+
+    private int accrueChunk(List<Long> loanIds, LocalDate runDate) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", loanIds)
+                .addValue("runDate", Date.valueOf(runDate));
+        List<Accrual> accruals = namedParameterJdbcTemplate.query(LOCK_CHUNK, params, (rs, rowNum) ->
+                new Accrual(rs.getLong(1), penalty(rs.getBigDecimal(2), rs.getInt(3))));
+        if (accruals.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>(accruals.size());
+        for (Accrual accrual : accruals) {
+            updates.add(new Object[] {accrual.penalty(), Date.valueOf(runDate), accrual.loanId()});
+        }
+        jdbcTemplate.batchUpdate(APPLY_ACCRUAL, updates);
+        return accruals.size();
+    }
+
+    private BigDecimal penalty(BigDecimal principal, int days) {
+        return principal.multiply(penaltyRatePercent).multiply(BigDecimal.valueOf(days))
+                .divide(DAYS_PER_YEAR_PERCENT, 2, RoundingMode.HALF_UP);
+    }
+
+    private int await(Future<Integer> result) {
+        try {
+            Integer accrued = result.get();
+            return accrued != null ? accrued : 0;
+        } catch (ExecutionException e) {
+            // The checkpoint still points before this wave, so a rerun picks it up again
+            throw new RuntimeException("Penalty accrual chunk failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during penalty accrual");
+        }
+    }
+
+    private Map<String, Object> summary(LocalDate runDate, long scanned, long accrued, boolean completed) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("runDate", runDate);
+        summary.put("loansScanned", scanned);
+        summary.put("loansAccrued", accrued);
+        summary.put("completed", completed);
+        return summary;
+    }
+}
@@ -0,0 +1,42 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Progress of batch jobs in job_checkpoints, one row per job. A job resumes from
+ * lastKey when its previous run for the same runDate did not finish.
+ */
+@Component
+public class JobCheckpointStore {
+
+    public record Checkpoint(LocalDate runDate, long lastKey, long processed, boolean completed) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobCheckpointStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Checkpoint load(String jobName) {
+        return jdbcTemplate.query(
+                "SELECT run_date, last_key, processed, completed FROM job_checkpoints WHERE job_name = ?",
+                rs -> rs.next()
+                        ? new Checkpoint(rs.getDate(1) != null ? rs.getDate(1).toLocalDate() : null,
+                                rs.getLong(2), rs.getLong(3), rs.getBoolean(4))
+                        : null,
+                jobName);
+    }
+
+    public void save(String jobName, LocalDate runDate, long lastKey, long processed, boolean completed) {
+        jdbcTemplate.update(
+                "INSERT INTO job_checkpoints (job_name, run_date, last_key, processed, completed) " +
+                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE run_date = VALUES(run_date), " +
+                "last_key = VALUES(last_key), processed = VALUES(processed), completed = VALUES(completed)",
+                jobName, runDate != null ? Date.valueOf(runDate) : null, lastKey, processed, completed);
+    }
+}
@@ -0,0 +1,180 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marks ACTIVE loans as DEFAULTED once their due date is more than the grace period in
+ * the past and principal is still outstanding, and tells each borrower through a
+ * PAYMENT_DUE notification.
+ *
+ * The job only scans the due dates that crossed the threshold since its last run: the
+ * last threshold handled is kept as a watermark in job_checkpoints, and each run walks
+ * (watermark, threshold] on idx_loans_status_due. Loans are transitioned in batches,
+ * each batch locking its rows, flipping them with one UPDATE and queueing the
+ * notifications with one INSERT ... SELECT into the outbox. A transitioned loan is no
+ * longer ACTIVE, so reruns find nothing, and the scheduler_locks lease keeps a second
+ * node from running the same scan concurrently.
+ */
+@Component
+@Slf4j
+public class LoanDefaultJob {
+
+    static final String JOB_NAME = "loan-default";
+
+    private static final String LOCK_BATCH =
+            "SELECT loan_id, principal_balance FROM loans " +
+            "WHERE status = 'ACTIVE' AND due_date > :watermark AND due_date <= :threshold " +
+            "AND principal_balance > 0 ORDER BY due_date, loan_id LIMIT :limit FOR UPDATE";
+
+    private static final String MARK_DEFAULTED =
+            "UPDATE loans SET status = 'DEFAULTED' WHERE loan_id IN (:ids) AND status = 'ACTIVE'";
+
+    private static final String QUEUE_NOTIFICATIONS =
+            "INSERT INTO notification_outbox (user_id, type, message, related_id) " +
+            "SELECT user_id, 'PAYMENT_DUE', CONCAT('Your loan #', loan_id, ' was due on ', due_date, ' and ', " +
+            "principal_balance, ' is still outstanding. The loan has been marked as defaulted.'), loan_id " +
+            "FROM loans WHERE loan_id IN (:ids)";
+
+    // Watermark used before the first run; every due date is after it
+    private static final LocalDate BEGINNING = LocalDate.of(1970, 1, 1);
+
+    private record BatchResult(int loans, BigDecimal principal) {
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardAggregateService dashboardAggregates;
+    private final JobCheckpointStore checkpoints;
+    private final SchedulerLock schedulerLock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int graceDays;
+    private final int batchSize;
+    private final Duration lease;
+
+    public LoanDefaultJob(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            DashboardAggregateService dashboardAggregates,
+            JobCheckpointStore checkpoints,
+            SchedulerLock schedulerLock,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${loans.default.grace-days:30}") int graceDays,
+            @Value("${loans.default.batch-size:500}") int batchSize,
+            @Value("${loans.default.lease-seconds:600}") long leaseSeconds) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dashboardAggregates = dashboardAggregates;
+        this.checkpoints = checkpoints;
+        this.schedulerLock = schedulerLock;
+        this.eventPublisher = eventPublisher;
+        this.graceDays = graceDays;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${loans.default.cron:0 0 3 * * *}")
+    public void runScheduled() {
+        // Every node fires the schedule; those that lose the lease just skip the night
+        schedulerLock.runExclusively(JOB_NAME, lease, () -> detect(LocalDate.now()));
+    }
+
+    /**
+     * Defaults every loan that crossed the threshold as of runDate. Throws if another
+     * node currently holds the job's lease.
+     */
+    public Map<String, Object> run(LocalDate runDate) {
+        Map<String, Object> summary = new HashMap<>();
+        boolean ran = schedulerLock.runExclusively(JOB_NAME, lease, () -> summary.putAll(detect(runDate)));
+        if (!ran) {
+            throw new RuntimeException("Default detection is already running on another node");
+        }
+        return summary;
+    }
+
+    /**
+     * Whether a loan due on dueDate is past the default threshold today. Such a loan is
+     * behind the watermark, or will be after the next run, so the job will not look at
+     * it again.
+     */
+    public boolean isPastDefaultThreshold(LocalDate dueDate) {
+        return dueDate != null && !dueDate.isAfter(LocalDate.now().minusDays(graceDays));
+    }
+
+    private Map<String, Object> detect(LocalDate runDate) {
+        LocalDate threshold = runDate.minusDays(graceDays);
+        JobCheckpointStore.Checkpoint checkpoint = checkpoints.load(JOB_NAME);
+        LocalDate watermark = checkpoint != null && checkpoint.runDate() != null ? checkpoint.runDate() : BEGINNING;
+        long processed = checkpoint != null ? checkpoint.processed() : 0;
+        if (!threshold.isAfter(watermark)) {
+            return summary(watermark, threshold, 0);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("watermark", Date.valueOf(watermark))
+                .addValue("threshold", Date.valueOf(threshold))
+                .addValue("limit", batchSize);
+        long defaulted = 0;
+        BatchResult batch;
+        do {
+            batch = transactionTemplate.execute(status -> defaultBatch(params));
+            if (batch == null) {
+                break;
+            }
+            defaulted += batch.loans();
+            if (!schedulerLock.renew(JOB_NAME, lease)) {
+                throw new RuntimeException("Lost the default detection lease");
+            }
+        } while (batch.loans() == batchSize);
+
+        // Watermark moves only after the whole range is done, so an interrupted run
+        // scans the same range again and picks up whatever is still ACTIVE
+        checkpoints.save(JOB_NAME, threshold, 0, processed + defaulted, true);
+        if (defaulted > 0) {
+            eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
+        }
+        log.info("Default detection for due dates in ({}, {}]: {} loans defaulted", watermark, threshold, defaulted);
+        return summary(watermark, threshold, defaulted);
+    }
+
+    private BatchResult defaultBatch(MapSqlParameterSource params) {
+        List<Long> ids = new ArrayList<>();
+        BigDecimal[] principal = {BigDecimal.ZERO};
+        namedParameterJdbcTemplate.query(LOCK_BATCH, params, rs -> {
+            ids.add(rs.getLong(1));
+            principal[0] = principal[0].add(rs.getBigDecimal(2));
+        });
+        if (ids.isEmpty()) {
+            return new BatchResult(0, BigDecimal.ZERO);
+        }
+
+        MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+        namedParameterJdbcTemplate.update(MARK_DEFAULTED, batch);
+        namedParameterJdbcTemplate.update(QUEUE_NOTIFICATIONS, batch);
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACTIVE_LOANS, -ids.size(), principal[0].negate());
+        return new BatchResult(ids.size(), principal[0]);
+    }
+
+    private Map<String, Object> summary(LocalDate watermark, LocalDate threshold, long defaulted) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("dueAfter", watermark);
+        summary.put("dueOnOrBefore", threshold);
+        summary.put("loansDefaulted", defaulted);
+        return summary;
+    }
+}
@@ -0,0 +1,344 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.cache.BoundedExpiringCache;
+import com.microfinancemanager.microfinancemanager.dto.loan.InstallmentResponse;
+import com.microfinancemanager.microfinancemanager.dto.loan.NextInstallmentResponse;
+import com.microfinancemanager.microfinancemanager.model.Loan;
+import com.microfinancemanager.microfinancemanager.model.LoanInstallment;
+import com.microfinancemanager.microfinancemanager.repository.LoanInstallmentRepository;
+import com.microfinancemanager.microfinancemanager.repository.LoanRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Persists and serves loan repayment schedules.
+ *
+ * Schedules are generated on approval and written with one JDBC batch. Installment
+ * status follows the loan's totalRepaid through cumulative_due, so recording a
+ * repayment or a reversal is a single UPDATE over the loan's installments. Within an
+ * installment, payments go to its interest before its principal. The
+ * customer-facing "next installment" lookup is served from a small in-memory cache
+ * of fixed-size entries, invalidated after every commit that changes the schedule or
+ * the amount repaid.
+ */
+@Service
+@Slf4j
+public class LoanScheduleService {
+
+    private static final String INSERT_INSTALLMENT =
+            "INSERT INTO loan_installments (loan_id, installment_number, due_date, principal_due, " +
+            "interest_due, total_due, cumulative_due, status) VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING')";
+
+    private static final String SYNC_INSTALLMENTS =
+            "UPDATE loan_installments SET status = IF(cumulative_due <= ?, 'PAID', 'PENDING'), " +
+            "paid_at = IF(cumulative_due <= ?, NOW(), NULL) " +
+            "WHERE loan_id = ? AND status <> IF(cumulative_due <= ?, 'PAID', 'PENDING')";
+
+    private static final String NEXT_INSTALLMENT =
+            "SELECT i.installment_number, i.due_date, i.total_due, i.cumulative_due - l.total_repaid " +
+            "FROM loan_installments i JOIN loans l ON l.loan_id = i.loan_id " +
+            "WHERE i.loan_id = ? AND i.status = 'PENDING' ORDER BY i.installment_number LIMIT 1";
+
+    private static final String REMAINING_INSTALLMENTS =
+            "SELECT interest_due, total_due, cumulative_due FROM loan_installments " +
+            "WHERE loan_id = ? AND cumulative_due > ? ORDER BY installment_number";
+
+    /** How a payment towards the schedule divides into interest and principal. */
+    public record Allocation(BigDecimal interest, BigDecimal principal) {
+    }
+
+    // Fixed-size cache entry; installmentNumber 0 means nothing is left to pay
+    private record NextDue(int installmentNumber, long dueEpochDay, long totalCents, long amountDueCents) {
+    }
+
+    private static final NextDue NOTHING_DUE = new NextDue(0, 0, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository installmentRepository;
+    private final AmortizationEngine amortizationEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedExpiringCache<Long, NextDue> nextInstallments;
+    private final ExecutorService regenerationPool;
+
+    public LoanScheduleService(JdbcTemplate jdbcTemplate,
+            LoanRepository loanRepository,
+            LoanInstallmentRepository installmentRepository,
+            AmortizationEngine amortizationEngine,
+            TransactionTemplate transactionTemplate,
+            @Value("${loans.schedule.next-installment-cache-size:100000}") int cacheSize,
+            @Value("${loans.schedule.next-installment-cache-ttl-minutes:60}") long cacheTtlMinutes,
+            @Value("${loans.schedule.regeneration-threads:4}") int regenerationThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loanRepository = loanRepository;
+        this.installmentRepository = installmentRepository;
+        this.amortizationEngine = amortizationEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.nextInstallments = new BoundedExpiringCache<>(cacheSize, Duration.ofMinutes(cacheTtlMinutes));
+        this.regenerationPool = Executors.newFixedThreadPool(regenerationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "schedule-regeneration");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        regenerationPool.shutdownNow();
+    }
+
+    /**
+     * Replaces the loan's schedule with a full one starting a month after its start
+     * date. Must run inside the transaction that approves the loan.
+     */
+    public void generateSchedule(Loan loan) {
+        jdbcTemplate.update("DELETE FROM loan_installments WHERE loan_id = ?", loan.getLoanId());
+        List<AmortizationEngine.Installment> schedule = amortizationEngine.schedule(
+                loan.getAmount(), loan.getInterestRate(), loan.getRepaymentPeriodMonths(),
+                loan.getInterestMethod(), 1, loan.getStartDate().toLocalDate().plusMonths(1), BigDecimal.ZERO);
+        insert(loan.getLoanId(), schedule);
+        invalidateAfterCommit(loan.getLoanId());
+    }
+
+    /**
+     * Marks installments paid or unpaid to match the loan's totalRepaid after a
+     * repayment or a reversal. Must run inside that transaction.
+     */
+    public void syncInstallments(Loan loan) {
+        if (loan.getStatus() == Loan.LoanStatus.PAID_OFF) {
+            jdbcTemplate.update("UPDATE loan_installments SET status = 'PAID', paid_at = NOW() " +
+                    "WHERE loan_id = ? AND status = 'PENDING'", loan.getLoanId());
+        } else {
+            BigDecimal repaid = loan.getTotalRepaid();
+            jdbcTemplate.update(SYNC_INSTALLMENTS, repaid, repaid, loan.getLoanId(), repaid);
+        }
+        invalidateAfterCommit(loan.getLoanId());
+    }
+
+    /**
+     * Splits a payment of amount, made on top of the loan's totalRepaid, into the
+     * interest and principal of the installments it covers. Throws when the amount is
+     * more than what is left on the schedule. Loans without a schedule take the whole
+     * amount as principal.
+     */
+    public Allocation allocate(Loan loan, BigDecimal amount) {
+        BigDecimal paidFrom = loan.getTotalRepaid();
+        BigDecimal paidTo = paidFrom.add(amount);
+        BigDecimal[] interest = {BigDecimal.ZERO};
+        BigDecimal[] scheduleEnd = {null};
+        jdbcTemplate.query(REMAINING_INSTALLMENTS, rs -> {
+            BigDecimal cumulativeDue = rs.getBigDecimal(3);
+            BigDecimal start = cumulativeDue.subtract(rs.getBigDecimal(2));
+            BigDecimal interestEnd = start.add(rs.getBigDecimal(1));
+            // Overlap of [paidFrom, paidTo) with this installment's interest [start, interestEnd)
+            BigDecimal overlap = paidTo.min(interestEnd).subtract(paidFrom.max(start));
+            if (overlap.signum() > 0) {
+                interest[0] = interest[0].add(overlap);
+            }
+            scheduleEnd[0] = cumulativeDue;
+        }, loan.getLoanId(), paidFrom);
+
+        BigDecimal principal = amount.subtract(interest[0]);
+        boolean beyondSchedule = scheduleEnd[0] != null
+                ? paidTo.compareTo(scheduleEnd[0]) > 0
+                : principal.compareTo(loan.getPrincipalBalance()) > 0;
+        if (beyondSchedule || principal.compareTo(loan.getPrincipalBalance()) > 0) {
+            throw new RuntimeException("Repayment amount exceeds remaining balance");
+        }
+        return new Allocation(interest[0], principal);
+    }
+
+    public List<InstallmentResponse> getSchedule(Long loanId) {
+        return installmentRepository.findByLoanIdOrderByInstallmentNumber(loanId).stream()
+                .map(this::mapToInstallmentResponse)
+                .toList();
+    }
+
+    public NextInstallmentResponse getNextInstallment(Long loanId) {
+        NextDue next = nextInstallments.get(loanId);
+        if (next == null) {
+            next = jdbcTemplate.query(NEXT_INSTALLMENT, rs -> rs.next()
+                    ? new NextDue(rs.getInt(1), rs.getDate(2).toLocalDate().toEpochDay(),
+                            cents(rs.getBigDecimal(3)),
+                            Math.min(cents(rs.getBigDecimal(3)), cents(rs.getBigDecimal(4))))
+                    : NOTHING_DUE, loanId);
+            nextInstallments.put(loanId, next);
+        }
+        if (next.installmentNumber() == 0) {
+            throw new RuntimeException("No installment due for this loan");
+        }
+        return NextInstallmentResponse.builder()
+                .loanId(loanId)
+                .installmentNumber(next.installmentNumber())
+                .dueDate(LocalDate.ofEpochDay(next.dueEpochDay()))
+                .totalDue(BigDecimal.valueOf(next.totalCents(), 2))
+                .amountDue(BigDecimal.valueOf(next.amountDueCents(), 2))
+                .build();
+    }
+
+    /**
+     * Applies a new rate to each APPROVED or ACTIVE loan and re-amortizes what is still
+     * owed over the remaining installments; other loans are reported as skipped. Loans
+     * are processed in parallel, each in its own transaction; one failing loan does not
+     * stop the others.
+     */
+    public Map<String, Object> changeInterestRate(List<Long> loanIds, BigDecimal interestRate) {
+        long started = System.currentTimeMillis();
+        List<Future<Boolean>> futures = new ArrayList<>(loanIds.size());
+        for (Long loanId : loanIds) {
+            futures.add(regenerationPool.submit(() -> transactionTemplate.execute(
+                    status -> regenerate(loanId, interestRate))));
+        }
+
+        int updated = 0;
+        List<Long> skipped = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                if (Boolean.TRUE.equals(futures.get(i).get())) {
+                    updated++;
+                } else {
+                    skipped.add(loanIds.get(i));
+                }
+            } catch (ExecutionException e) {
+                log.warn("Rate change failed for loan {}: {}", loanIds.get(i), e.getCause().getMessage());
+                failed.add(loanIds.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while regenerating schedules");
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Rate change to {} applied to {} loans in {} ms ({} skipped, {} failed)",
+                interestRate, updated, elapsed, skipped.size(), failed.size());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("interestRate", interestRate);
+        result.put("updated", updated);
+        result.put("skippedLoanIds", skipped);
+        result.put("failedLoanIds", failed);
+        result.put("elapsedMillis", elapsed);
+        return result;
+    }
+
+    // Returns false, leaving the loan untouched, for loans that are not APPROVED or ACTIVE:
+    // a DEFAULTED or PAID_OFF loan keeps the rate its schedule was built with
+    private boolean regenerate(Long loanId, BigDecimal interestRate) {
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
+                .orElseThrow(() -> new RuntimeException("Loan not found"));
+        if (loan.getStatus() != Loan.LoanStatus.APPROVED && loan.getStatus() != Loan.LoanStatus.ACTIVE) {
+            return false;
+        }
+        loan.setInterestRate(interestRate);
+        loanRepository.save(loan);
+
+        Integer paidCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loan_installments WHERE loan_id = ? AND status = 'PAID'", Integer.class, loanId);
+        int remaining = loan.getRepaymentPeriodMonths() - paidCount;
+        if (remaining < 1 || loan.getPrincipalBalance().signum() == 0) {
+            return true;
+        }
+
+        // Within an installment interest is paid before principal, so whatever was repaid
+        // beyond the last fully paid installment went first to the current installment's
+        // interest; only the rest has reduced the principal.
+        BigDecimal paidThrough = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(cumulative_due), 0) FROM loan_installments WHERE loan_id = ? AND status = 'PAID'",
+                BigDecimal.class, loanId);
+        List<BigDecimal> currentInterest = jdbcTemplate.queryForList(
+                "SELECT interest_due FROM loan_installments WHERE loan_id = ? AND status = 'PENDING' " +
+                "ORDER BY installment_number LIMIT 1", BigDecimal.class, loanId);
+        BigDecimal interestPaid = currentInterest.isEmpty() ? BigDecimal.ZERO
+                : loan.getTotalRepaid().subtract(paidThrough).max(BigDecimal.ZERO).min(currentInterest.get(0));
+
+        jdbcTemplate.update("DELETE FROM loan_installments WHERE loan_id = ? AND status = 'PENDING'", loanId);
+        List<AmortizationEngine.Installment> schedule = amortizationEngine.schedule(
+                loan.getPrincipalBalance(), interestRate, remaining, loan.getInterestMethod(),
+                paidCount + 1, loan.getStartDate().toLocalDate().plusMonths(paidCount + 1), loan.getTotalRepaid());
+        insert(loanId, creditPaidInterest(schedule, interestPaid));
+        invalidateAfterCommit(loanId);
+        return true;
+    }
+
+    // The new schedule starts at totalRepaid and charges the current period's interest in
+    // full; the part of it already paid comes off the first installment, so it is not
+    // charged twice. After a rate cut the paid interest can exceed the new charge; that
+    // excess was due at the old rate when it was paid and stays paid.
+    private List<AmortizationEngine.Installment> creditPaidInterest(List<AmortizationEngine.Installment> schedule,
+            BigDecimal interestPaid) {
+        BigDecimal credit = interestPaid.min(schedule.get(0).interest());
+        if (credit.signum() == 0) {
+            return schedule;
+        }
+        List<AmortizationEngine.Installment> credited = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            AmortizationEngine.Installment installment = schedule.get(i);
+            BigDecimal interest = i == 0 ? installment.interest().subtract(credit) : installment.interest();
+            credited.add(new AmortizationEngine.Installment(installment.number(), installment.dueDate(),
+                    installment.principal(), interest, installment.principal().add(interest),
+                    installment.cumulativeDue().subtract(credit)));
+        }
+        return credited;
+    }
+
+    private void insert(Long loanId, List<AmortizationEngine.Installment> schedule) {
+        List<Object[]> rows = new ArrayList<>(schedule.size());
+        for (AmortizationEngine.Installment installment : schedule) {
+            rows.add(new Object[] {
+                    loanId, installment.number(), Date.valueOf(installment.dueDate()), installment.principal(),
+                    installment.interest(), installment.total(), installment.cumulativeDue()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_INSTALLMENT, rows);
+    }
+
+    private void invalidateAfterCommit(Long loanId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    nextInstallments.invalidate(loanId);
+                }
+            });
+        } else {
+            nextInstallments.invalidate(loanId);
+        }
+    }
+
+    private long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    private InstallmentResponse mapToInstallmentResponse(LoanInstallment installment) {
+        return InstallmentResponse.builder()
+                .installmentNumber(installment.getInstallmentNumber())
+                .dueDate(installment.getDueDate())
+                .principalDue(installment.getPrincipalDue())
+                .interestDue(installment.getInterestDue())
+                .totalDue(installment.getTotalDue())
+                .cumulativeDue(installment.getCumulativeDue())
+                .status(installment.getStatus().name())
+                .paidAt(installment.getPaidAt())
+                .build();
+    }
+}
@@ -1,8 +1,11 @@
 package com.microfinancemanager.microfinancemanager.service;
 
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.common.KeysetCursor;
 import com.microfinancemanager.microfinancemanager.dto.loan.ApproveLoanRequest;
 import com.microfinancemanager.microfinancemanager.dto.loan.CreateLoanRequest;
 import com.microfinancemanager.microfinancemanager.dto.loan.LoanResponse;
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
 import com.microfinancemanager.microfinancemanager.model.Account;
 import com.microfinancemanager.microfinancemanager.model.Loan;
 import com.microfinancemanager.microfinancemanager.model.User;
@@ -10,6 +13,8 @@ import com.microfinancemanager.microfinancemanager.repository.AccountRepository;
 import com.microfinancemanager.microfinancemanager.repository.LoanRepository;
 import com.microfinancemanager.microfinancemanager.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,7 +22,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,25 +31,32 @@ public class LoanService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final NotificationService notificationService;
-
-    public List<LoanResponse> getAllLoans(Loan.LoanStatus status) {
-        List<Loan> loans;
-        if (status != null) {
-            loans = loanRepository.findByStatus(status);
-        } else {
-            loans = loanRepository.findAll();
+    private final DashboardAggregateService dashboardAggregates;
+    private final ReportRollupService reportRollups;
+    private final LoanScheduleService loanScheduleService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CursorPage<LoanResponse> searchLoans(Loan.LoanStatus status, Long userId,
+            LocalDateTime startDate, LocalDateTime endDate, BigDecimal minAmount, BigDecimal maxAmount,
+            String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<LoanResponse> rows = loanRepository.searchAfterCursor(status, userId, startDate, endDate,
+                minAmount, maxAmount, position != null ? position.timestamp() : null,
+                position != null ? position.id() : null, Limit.of(limit + 1));
+
+        // One extra row was fetched only to learn whether another page exists
+        boolean hasNext = rows.size() > limit;
+        List<LoanResponse> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            LoanResponse last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getRequestDate(), last.getLoanId()).encode();
         }
-        return loans.stream().map(this::mapToLoanResponse).collect(Collectors.toList());
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
     public List<LoanResponse> getUserLoans(Long userId, Loan.LoanStatus status) {
-        List<Loan> loans;
-        if (status != null) {
-            loans = loanRepository.findByUser_UserIdAndStatus(userId, status);
-        } else {
-            loans = loanRepository.findByUser_UserId(userId);
-        }
-        return loans.stream().map(this::mapToLoanResponse).collect(Collectors.toList());
+        return loanRepository.findResponsesByUser(userId, status);
     }
 
     public LoanResponse getLoanById(Long loanId) {
@@ -72,6 +83,9 @@ public class LoanService {
                 .amount(request.getAmount())
                 .interestRate(request.getInterestRate())
                 .repaymentPeriodMonths(request.getRepaymentPeriodMonths())
+                .interestMethod(request.getInterestMethod() != null
+                        ? Loan.InterestMethod.valueOf(request.getInterestMethod())
+                        : Loan.InterestMethod.REDUCING_BALANCE)
                 .status(Loan.LoanStatus.PENDING)
                 .principalBalance(request.getAmount())
                 .totalRepaid(BigDecimal.ZERO)
@@ -79,6 +93,10 @@ public class LoanService {
 
         loan = loanRepository.save(loan);
 
+        dashboardAggregates.record(DashboardAggregateService.Metric.LOANS, 1, loan.getAmount());
+        dashboardAggregates.recordLoanChange(null, BigDecimal.ZERO, loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
+
         // Send notification
         notificationService.sendNotification(
                 user.getUserId(),
@@ -92,8 +110,11 @@ public class LoanService {
 
     @Transactional
     public LoanResponse approveLoan(Long loanId, ApproveLoanRequest request) {
-        Loan loan = loanRepository.findById(loanId)
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
                 .orElseThrow(() -> new RuntimeException("Loan not found"));
+        Loan.LoanStatus previousStatus = loan.getStatus();
+        BigDecimal previousAmount = loan.getAmount();
+        BigDecimal previousPrincipal = loan.getPrincipalBalance();
 
         loan.setStatus(Loan.LoanStatus.APPROVED);
         loan.setAmount(request.getApprovedAmount());
@@ -102,6 +123,12 @@ public class LoanService {
         loan.setDueDate(LocalDate.now().plusMonths(loan.getRepaymentPeriodMonths()));
 
         loan = loanRepository.save(loan);
+        loanScheduleService.generateSchedule(loan);
+
+        dashboardAggregates.record(DashboardAggregateService.Metric.LOANS, 0,
+                loan.getAmount().subtract(previousAmount));
+        dashboardAggregates.recordLoanChange(previousStatus, previousPrincipal, loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
 
         // Send notification
         notificationService.sendNotification(
@@ -116,11 +143,14 @@ public class LoanService {
 
     @Transactional
     public LoanResponse rejectLoan(Long loanId, String rejectionReason) {
-        Loan loan = loanRepository.findById(loanId)
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
                 .orElseThrow(() -> new RuntimeException("Loan not found"));
+        Loan.LoanStatus previousStatus = loan.getStatus();
 
         loan.setStatus(Loan.LoanStatus.REJECTED);
         loan = loanRepository.save(loan);
+        dashboardAggregates.recordLoanChange(previousStatus, loan.getPrincipalBalance(), loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
 
         // Send notification
         notificationService.sendNotification(
@@ -135,14 +165,14 @@ public class LoanService {
 
     @Transactional
     public LoanResponse disburseLoan(Long loanId, Long accountId) {
-        Loan loan = loanRepository.findById(loanId)
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
                 .orElseThrow(() -> new RuntimeException("Loan not found"));
 
         if (loan.getStatus() != Loan.LoanStatus.APPROVED) {
             throw new RuntimeException("Loan must be approved before disbursement");
         }
 
-        Account account = accountRepository.findById(accountId)
+        Account account = accountRepository.findByIdForUpdate(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
         account.setBalance(account.getBalance().add(loan.getAmount()));
@@ -151,6 +181,11 @@ public class LoanService {
         loan.setStatus(Loan.LoanStatus.ACTIVE);
         loan = loanRepository.save(loan);
 
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 0, loan.getAmount());
+        reportRollups.record(ReportRollupService.DISBURSEMENT, loan.getAmount());
+        dashboardAggregates.recordLoanChange(Loan.LoanStatus.APPROVED, loan.getPrincipalBalance(), loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
+
         // Send notification
         notificationService.sendNotification(
                 loan.getUser().getUserId(),
@@ -164,15 +199,18 @@ public class LoanService {
 
     @Transactional
     public void closeLoan(Long loanId) {
-        Loan loan = loanRepository.findById(loanId)
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
                 .orElseThrow(() -> new RuntimeException("Loan not found"));
 
         if (loan.getPrincipalBalance().compareTo(BigDecimal.ZERO) > 0) {
             throw new RuntimeException("Loan must be fully repaid before closing");
         }
 
+        Loan.LoanStatus previousStatus = loan.getStatus();
         loan.setStatus(Loan.LoanStatus.PAID_OFF);
         loanRepository.save(loan);
+        dashboardAggregates.recordLoanChange(previousStatus, loan.getPrincipalBalance(), loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("LOAN"));
 
         // Send notification
         notificationService.sendNotification(
@@ -191,12 +229,14 @@ public class LoanService {
                 .amount(loan.getAmount())
                 .interestRate(loan.getInterestRate())
                 .repaymentPeriodMonths(loan.getRepaymentPeriodMonths())
+                .interestMethod(loan.getInterestMethod().name())
                 .status(loan.getStatus().name())
                 .requestDate(loan.getRequestDate())
                 .startDate(loan.getStartDate())
                 .dueDate(loan.getDueDate())
                 .principalBalance(loan.getPrincipalBalance())
                 .totalRepaid(loan.getTotalRepaid())
+                .accruedPenalty(loan.getAccruedPenalty())
                 .build();
     }
 }
@@ -0,0 +1,139 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves READ and ARCHIVED notifications older than the retention period from
+ * notifications into notifications_archive, keeping the inbox table and its indexes
+ * small.
+ *
+ * Rows are moved in chunks, oldest first on idx_notifications_status_sent: each chunk
+ * is copied with one INSERT ... SELECT and deleted in the same short transaction, with
+ * a pause between chunks so the purge never holds locks for long or crowds out
+ * request traffic. A scheduler_locks lease keeps the job on one node.
+ */
+@Component
+@Slf4j
+public class NotificationArchiveJob {
+
+    static final String JOB_NAME = "notification-archive";
+
+    private static final String CLAIM_CHUNK =
+            "SELECT notification_id FROM notifications WHERE status IN ('READ', 'ARCHIVED') AND sent_at < :cutoff " +
+            "ORDER BY sent_at, notification_id LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String COPY_CHUNK =
+            "INSERT INTO notifications_archive (notification_id, user_id, type, message, status, related_id, sent_at) " +
+            "SELECT notification_id, user_id, type, message, status, related_id, sent_at FROM notifications " +
+            "WHERE notification_id IN (:ids)";
+
+    private static final String DELETE_CHUNK =
+            "DELETE FROM notifications WHERE notification_id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLock schedulerLock;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Duration lease;
+
+    public NotificationArchiveJob(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchedulerLock schedulerLock,
+            @Value("${notifications.archive.retention-days:90}") int retentionDays,
+            @Value("${notifications.archive.chunk-size:1000}") int chunkSize,
+            @Value("${notifications.archive.pause-ms:100}") long pauseMillis,
+            @Value("${notifications.archive.lease-seconds:600}") long leaseSeconds) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${notifications.archive.cron:0 30 4 * * *}")
+    public void runScheduled() {
+        // Every node fires the schedule; those that lose the lease just skip the night
+        schedulerLock.runExclusively(JOB_NAME, lease, () -> archive());
+    }
+
+    /**
+     * Archives everything past retention. Throws if another node currently holds the
+     * job's lease.
+     */
+    public Map<String, Object> run() {
+        Map<String, Object> summary = new HashMap<>();
+        boolean ran = schedulerLock.runExclusively(JOB_NAME, lease, () -> summary.putAll(archive()));
+        if (!ran) {
+            throw new RuntimeException("Notification archiving is already running on another node");
+        }
+        return summary;
+    }
+
+    private Map<String, Object> archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", chunkSize);
+
+        long started = System.currentTimeMillis();
+        long archived = 0;
+        int moved;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> archiveChunk(params));
+            moved = chunk != null ? chunk : 0;
+            archived += moved;
+            if (moved == chunkSize) {
+                if (!schedulerLock.renew(JOB_NAME, lease)) {
+                    throw new RuntimeException("Lost the notification archive lease");
+                }
+                pause();
+            }
+        } while (moved == chunkSize);
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Archived {} notifications sent before {} in {} ms", archived, cutoff, elapsed);
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("cutoff", cutoff);
+        summary.put("archived", archived);
+        summary.put("elapsedMillis", elapsed);
+        return summary;
+    }
+
+    private int archiveChunk(MapSqlParameterSource params) {
+        List<Long> ids = namedParameterJdbcTemplate.queryForList(CLAIM_CHUNK, params, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource chunk = new MapSqlParameterSource("ids", ids);
+        namedParameterJdbcTemplate.update(COPY_CHUNK, chunk);
+        namedParameterJdbcTemplate.update(DELETE_CHUNK, chunk);
+        return ids.size();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while archiving notifications");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves notifications from notification_outbox into notifications in batches.
+ *
+ * Committed outbox ids are handed to a bounded in-process queue that a single worker
+ * drains. When the queue is full the id is simply dropped: the row is still in the
+ * outbox, and the periodic sweep picks it up. The sweep also delivers whatever was
+ * left over from before a restart. Rows are claimed with FOR UPDATE SKIP LOCKED and
+ * deleted in the same transaction as the insert, so each one is delivered exactly once.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (user_id, type, message, status, related_id, sent_at) " +
+            "VALUES (?, ?, ?, 'UNREAD', ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationStreamHub streamHub;
+    private final BlockingQueue<Long> pending;
+    private final int batchSize;
+    private final long sweepGraceSeconds;
+    private final AtomicLong overflowed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            UnreadNotificationCounters unreadCounters,
+            NotificationStreamHub streamHub,
+            @Value("${notifications.outbox.queue-capacity:10000}") int queueCapacity,
+            @Value("${notifications.outbox.batch-size:200}") int batchSize,
+            @Value("${notifications.outbox.sweep-grace-seconds:10}") long sweepGraceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounters = unreadCounters;
+        this.streamHub = streamHub;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.sweepGraceSeconds = sweepGraceSeconds;
+    }
+
+    /**
+     * Queues the outbox row for delivery once the surrounding transaction commits.
+     * Never blocks the posting thread.
+     */
+    public void dispatchAfterCommit(Long outboxId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(outboxId);
+                }
+            });
+        } else {
+            enqueue(outboxId);
+        }
+    }
+
+    private void enqueue(Long outboxId) {
+        if (!pending.offer(outboxId)) {
+            overflowed.incrementAndGet();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainQueue, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainQueue() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                ids.add(first);
+                pending.drainTo(ids, batchSize - 1);
+                deliver(ids);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // The rows are still in the outbox; the sweep retries them
+                log.error("Notification dispatch failed for {} outbox rows: {}", ids.size(), e.getMessage());
+            } finally {
+                ids.clear();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.sweep-interval-ms:5000}")
+    public void sweep() {
+        long overflow = overflowed.getAndSet(0);
+        if (overflow > 0) {
+            log.warn("Notification queue was full; {} outbox rows left for the sweep", overflow);
+        }
+
+        int delivered;
+        do {
+            delivered = deliverStale();
+        } while (delivered == batchSize);
+    }
+
+    private int deliver(List<Long> outboxIds) {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = namedParameterJdbcTemplate.queryForList(
+                    "SELECT outbox_id, user_id, type, message, related_id, created_at FROM notification_outbox " +
+                    "WHERE outbox_id IN (:ids) FOR UPDATE SKIP LOCKED",
+                    Map.of("ids", outboxIds));
+            return moveToNotifications(rows);
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    private int deliverStale() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT outbox_id, user_id, type, message, related_id, created_at FROM notification_outbox " +
+                    "WHERE created_at < ? ORDER BY outbox_id LIMIT ? FOR UPDATE SKIP LOCKED",
+                    Timestamp.valueOf(LocalDateTime.now().minusSeconds(sweepGraceSeconds)), batchSize);
+            return moveToNotifications(rows);
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    private int moveToNotifications(List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, ((Number) row.get("user_id")).longValue());
+            ps.setString(2, (String) row.get("type"));
+            ps.setString(3, (String) row.get("message"));
+            if (row.get("related_id") != null) {
+                ps.setLong(4, ((Number) row.get("related_id")).longValue());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setObject(5, row.get("created_at"));
+        });
+
+        List<Long> ids = rows.stream().map(row -> ((Number) row.get("outbox_id")).longValue()).toList();
+        namedParameterJdbcTemplate.update("DELETE FROM notification_outbox WHERE outbox_id IN (:ids)",
+                Map.of("ids", ids));
+
+        Map<Long, Long> delivered = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            delivered.merge(((Number) row.get("user_id")).longValue(), 1L, Long::sum);
+        }
+        unreadCounters.adjustAfterCommit(delivered);
+        streamHub.publishAfterCommit(delivered.keySet());
+        return rows.size();
+    }
+}
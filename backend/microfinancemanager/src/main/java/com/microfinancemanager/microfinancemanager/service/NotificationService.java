@@ -1,31 +1,62 @@
 package com.microfinancemanager.microfinancemanager.service;
 
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.common.KeysetCursor;
 import com.microfinancemanager.microfinancemanager.dto.notification.CreateNotificationRequest;
 import com.microfinancemanager.microfinancemanager.dto.notification.NotificationResponse;
 import com.microfinancemanager.microfinancemanager.model.Notification;
-import com.microfinancemanager.microfinancemanager.model.User;
+import com.microfinancemanager.microfinancemanager.model.NotificationOutbox;
+import com.microfinancemanager.microfinancemanager.repository.NotificationOutboxRepository;
 import com.microfinancemanager.microfinancemanager.repository.NotificationRepository;
 import com.microfinancemanager.microfinancemanager.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    // Upper bound of the unpaged inbox listing
+    static final int LIST_LIMIT = 100;
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationStreamHub streamHub;
+
+    /**
+     * Newest notifications first, capped at LIST_LIMIT. Use
+     * getUserNotificationsAfter to page through the rest.
+     */
     public List<NotificationResponse> getUserNotifications(Long userId, 
             Notification.NotificationStatus status, Notification.NotificationType type) {
-        return notificationRepository.findByUserWithFilters(userId, status, type)
-                .stream()
-                .map(this::mapToNotificationResponse)
-                .collect(Collectors.toList());
+        return notificationRepository.findByUserAfterCursor(userId, status, type, null, null,
+                Limit.of(LIST_LIMIT));
+    }
+
+    public CursorPage<NotificationResponse> getUserNotificationsAfter(Long userId,
+            Notification.NotificationStatus status, Notification.NotificationType type, String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<NotificationResponse> rows = notificationRepository.findByUserAfterCursor(userId, status, type,
+                position != null ? position.timestamp() : null, position != null ? position.id() : null,
+                Limit.of(limit + 1));
+
+        // One extra row was fetched only to learn whether another page exists
+        boolean hasNext = rows.size() > limit;
+        List<NotificationResponse> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            NotificationResponse last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getSentAt(), last.getNotificationId()).encode();
+        }
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
     public NotificationResponse getNotificationById(Long notificationId) {
@@ -36,35 +67,41 @@ public class NotificationService {
 
     @Transactional
     public NotificationResponse createNotification(CreateNotificationRequest request) {
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+        // A reference is enough to set the foreign key; a missing user fails the insert
         Notification notification = Notification.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(request.getUserId()))
                 .type(Notification.NotificationType.valueOf(request.getType()))
                 .message(request.getMessage())
                 .status(Notification.NotificationStatus.UNREAD)
                 .relatedId(request.getRelatedId())
                 .build();
 
-        notification = notificationRepository.save(notification);
+        try {
+            notification = notificationRepository.saveAndFlush(notification);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User not found");
+        }
+        unreadCounters.adjustAfterCommit(request.getUserId(), 1);
+        streamHub.publishAfterCommit(List.of(request.getUserId()));
         return mapToNotificationResponse(notification);
     }
 
+    /**
+     * Queues a notification in the outbox as part of the caller's transaction. The
+     * NotificationDispatcher delivers it to the notifications table after commit, which
+     * keeps the user lookup and the notifications insert off the posting path.
+     */
     @Transactional
     public void sendNotification(Long userId, String type, String message, Long relatedId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Notification notification = Notification.builder()
-                .user(user)
+        NotificationOutbox entry = NotificationOutbox.builder()
+                .userId(userId)
                 .type(Notification.NotificationType.valueOf(type))
                 .message(message)
-                .status(Notification.NotificationStatus.UNREAD)
                 .relatedId(relatedId)
                 .build();
 
-        notificationRepository.save(notification);
+        entry = notificationOutboxRepository.save(entry);
+        notificationDispatcher.dispatchAfterCommit(entry.getOutboxId());
     }
 
     @Transactional
@@ -72,19 +109,41 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
-        notification.setStatus(Notification.NotificationStatus.READ);
-        notification = notificationRepository.save(notification);
-
-        return mapToNotificationResponse(notification);
+        // Conditional, so two concurrent reads of the same notification decrement once
+        if (notificationRepository.markReadIfUnread(notificationId) == 1) {
+            unreadCounters.adjustAfterCommit(notification.getUser().getUserId(), -1);
+        }
+
+        // The entity is left as loaded: changing it would flush a second, unconditional
+        // UPDATE. Only UNREAD ever becomes READ, whether here or in a concurrent request.
+        NotificationResponse response = mapToNotificationResponse(notification);
+        if (notification.getStatus() == Notification.NotificationStatus.UNREAD) {
+            response.setStatus(Notification.NotificationStatus.READ.name());
+        }
+        return response;
     }
 
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            notificationRepository.delete(notification);
+            if (notification.getStatus() == Notification.NotificationStatus.UNREAD) {
+                unreadCounters.adjustAfterCommit(notification.getUser().getUserId(), -1);
+            }
+        });
+    }
+
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllReadForUser(userId);
+        if (updated > 0) {
+            unreadCounters.adjustAfterCommit(userId, -updated);
+        }
+        return updated;
     }
 
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUser_UserIdAndStatus(userId, Notification.NotificationStatus.UNREAD);
+        return unreadCounters.get(userId);
     }
 
     private NotificationResponse mapToNotificationResponse(Notification notification) {
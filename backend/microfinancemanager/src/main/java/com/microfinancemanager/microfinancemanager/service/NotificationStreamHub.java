@@ -0,0 +1,426 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.dto.notification.NotificationResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes new notifications to connected users over Server-Sent Events.
+ *
+ * Each open stream is an async SseEmitter, so an idle connection holds no request
+ * thread. When notifications commit on this node, and every few seconds for the rows
+ * committed elsewhere, a single pusher thread reads the connected users' recent rows
+ * and queues the ones not sent yet on their streams.
+ *
+ * Notifications are written by several concurrent writers and commit out of id order,
+ * so the highest id sent to a user is not a safe cursor. Every read goes back over the
+ * rows first seen within the overlap window and skips the ids already sent; a user's
+ * floor only moves past an id once it was sent longer ago than any writer's
+ * transaction takes to commit.
+ *
+ * Every stream has a small bounded queue that a pool of sender threads drains, one
+ * sender per stream at a time, which keeps a user's events in order. A client that
+ * reads too slowly fills its queue, or stays stuck in one write past the write
+ * timeout, and is disconnected instead of holding up the others; on reconnect it is
+ * sent what it missed. The event id is the notification id, so a client that
+ * reconnects with Last-Event-ID is replayed everything after it, together with the
+ * rows that committed late around it; clients drop ids they have already seen.
+ */
+@Component
+@Slf4j
+public class NotificationStreamHub {
+
+    private static final String COLUMNS =
+            "SELECT notification_id, user_id, type, message, status, related_id, sent_at FROM notifications ";
+
+    // Connected users whose new notifications are read with one query
+    private static final int PUSH_QUERY_USERS = 200;
+
+    private static final RowMapper<NotificationResponse> ROW_MAPPER = (rs, rowNum) -> NotificationResponse.builder()
+            .notificationId(rs.getLong(1))
+            .userId(rs.getLong(2))
+            .type(rs.getString(3))
+            .message(rs.getString(4))
+            .status(rs.getString(5))
+            .relatedId(rs.getObject(6) != null ? rs.getLong(6) : null)
+            .sentAt(rs.getTimestamp(7) != null ? rs.getTimestamp(7).toLocalDateTime() : null)
+            .build();
+
+    // A queued event: either a notification or an SSE comment
+    private record Outgoing(NotificationResponse notification, String comment) {
+    }
+
+    // What was sent to one connected user; only touched on the pusher thread
+    private static final class Delivered {
+        // Ids at or below the floor are not read again
+        long floor;
+        // Ids above the floor that were already sent, with when, in the order they were sent
+        final ArrayDeque<long[]> recent = new ArrayDeque<>();
+        final Set<Long> recentIds = new HashSet<>();
+
+        Delivered(long floor) {
+            this.floor = floor;
+        }
+
+        void sent(long notificationId, long now) {
+            recent.addLast(new long[] {notificationId, now});
+            recentIds.add(notificationId);
+        }
+
+        // An id sent longer ago than the overlap can no longer have a lower id commit
+        // after it, so the floor moves up to it
+        void settle(long settledBefore) {
+            while (!recent.isEmpty() && recent.peekFirst()[1] < settledBefore) {
+                long[] oldest = recent.removeFirst();
+                recentIds.remove(oldest[0]);
+                floor = Math.max(floor, oldest[0]);
+            }
+        }
+    }
+
+    private static final class Stream {
+        final Long userId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Outgoing> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // When the write in progress started, 0 when none is
+        volatile long writingSinceMillis;
+
+        Stream(Long userId, SseEmitter emitter, int queueCapacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<Long, CopyOnWriteArrayList<Stream>> streams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Delivered> delivered = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final ExecutorService pusher;
+    private final ExecutorService senders;
+    private final int maxStreams;
+    private final int maxStreamsPerUser;
+    private final long streamTimeoutMillis;
+    private final int replayLimit;
+    private final int queueCapacity;
+    private final long writeTimeoutMillis;
+    private final long overlapMillis;
+
+    public NotificationStreamHub(JdbcTemplate jdbcTemplate,
+            @Value("${notifications.stream.max-streams:50000}") int maxStreams,
+            @Value("${notifications.stream.max-streams-per-user:5}") int maxStreamsPerUser,
+            @Value("${notifications.stream.timeout-ms:1800000}") long streamTimeoutMillis,
+            @Value("${notifications.stream.replay-limit:100}") int replayLimit,
+            @Value("${notifications.stream.sender-threads:8}") int senderThreads,
+            @Value("${notifications.stream.queue-capacity:256}") int queueCapacity,
+            @Value("${notifications.stream.write-timeout-ms:10000}") long writeTimeoutMillis,
+            @Value("${notifications.stream.overlap-ms:60000}") long overlapMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxStreams = maxStreams;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.replayLimit = replayLimit;
+        this.queueCapacity = queueCapacity;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.overlapMillis = overlapMillis;
+        this.pusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        pusher.shutdownNow();
+        senders.shutdownNow();
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> stream.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream for the user. When lastEventId is given, notifications after it
+     * are replayed first, up to the replay limit.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        CopyOnWriteArrayList<Stream> userStreams = streams.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        if (userStreams.size() >= maxStreamsPerUser) {
+            throw new RuntimeException("Too many open notification streams for this user");
+        }
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            throw new RuntimeException("Notification streams are at capacity, please poll instead");
+        }
+
+        Stream stream = new Stream(userId, new SseEmitter(streamTimeoutMillis), queueCapacity);
+        stream.emitter.onCompletion(() -> remove(stream));
+        stream.emitter.onTimeout(() -> remove(stream));
+        stream.emitter.onError(error -> remove(stream));
+        userStreams.add(stream);
+
+        pusher.execute(() -> {
+            if (stream.closed.get()) {
+                return;
+            }
+            delivered.computeIfAbsent(userId, this::startDelivery);
+            if (!streams.containsKey(userId)) {
+                // The user's last stream closed meanwhile
+                delivered.remove(userId);
+                return;
+            }
+            if (lastEventId != null) {
+                for (NotificationResponse notification : missedSince(userId, lastEventId)) {
+                    enqueue(stream, new Outgoing(notification, null));
+                }
+            }
+            enqueue(stream, new Outgoing(null, "connected"));
+        });
+        return stream.emitter;
+    }
+
+    /**
+     * Pushes the users' new notifications once the current transaction commits. Users
+     * without an open stream are skipped at no cost.
+     */
+    public void publishAfterCommit(Collection<Long> userIds) {
+        if (streams.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> users = List.copyOf(userIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(users);
+                }
+            });
+        } else {
+            publish(userIds);
+        }
+    }
+
+    private void publish(Collection<Long> userIds) {
+        List<Long> connected = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (streams.containsKey(userId)) {
+                connected.add(userId);
+            }
+        }
+        if (connected.isEmpty()) {
+            return;
+        }
+        pusher.execute(() -> push(connected));
+    }
+
+    private void push(List<Long> userIds) {
+        for (int from = 0; from < userIds.size(); from += PUSH_QUERY_USERS) {
+            pushChunk(userIds.subList(from, Math.min(from + PUSH_QUERY_USERS, userIds.size())));
+        }
+    }
+
+    // Reads every user's rows above their floor, each user with their own floor, and
+    // sends the ones not already sent
+    private void pushChunk(List<Long> userIds) {
+        long now = System.currentTimeMillis();
+        StringBuilder where = new StringBuilder();
+        List<Object> args = new ArrayList<>(userIds.size() * 2);
+        for (Long userId : userIds) {
+            Delivered sent = delivered.get(userId);
+            if (sent == null) {
+                continue;
+            }
+            sent.settle(now - overlapMillis);
+            where.append(args.isEmpty() ? "" : " OR ").append("(user_id = ? AND notification_id > ?)");
+            args.add(userId);
+            args.add(sent.floor);
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+
+        List<NotificationResponse> fresh = jdbcTemplate.query(
+                COLUMNS + "WHERE " + where + " ORDER BY notification_id", ROW_MAPPER, args.toArray());
+        for (NotificationResponse notification : fresh) {
+            Delivered sent = delivered.get(notification.getUserId());
+            if (sent == null || sent.recentIds.contains(notification.getNotificationId())) {
+                continue;
+            }
+            sent.sent(notification.getNotificationId(), now);
+            List<Stream> userStreams = streams.get(notification.getUserId());
+            if (userStreams != null) {
+                userStreams.forEach(stream -> enqueue(stream, new Outgoing(notification, null)));
+            }
+        }
+    }
+
+    // Picks up notifications committed on other nodes, or committed late on this one
+    @Scheduled(fixedDelayString = "${notifications.stream.catch-up-ms:5000}")
+    public void catchUp() {
+        if (streams.isEmpty()) {
+            return;
+        }
+        List<Long> connected = List.copyOf(streams.keySet());
+        pusher.execute(() -> push(connected));
+    }
+
+    // Keeps idle connections from being closed by proxies, and finds dead or stuck ones
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long stuckBefore = System.currentTimeMillis() - writeTimeoutMillis;
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> {
+            long writingSince = stream.writingSinceMillis;
+            if (writingSince != 0 && writingSince < stuckBefore) {
+                log.debug("Closing notification stream of user {}: write blocked for over {} ms",
+                        stream.userId, writeTimeoutMillis);
+                remove(stream);
+            } else {
+                enqueue(stream, new Outgoing(null, "ping"));
+            }
+        }));
+    }
+
+    public int getOpenStreams() {
+        return openStreams.get();
+    }
+
+    private void enqueue(Stream stream, Outgoing event) {
+        if (stream.closed.get()) {
+            return;
+        }
+        if (!stream.queue.offer(event)) {
+            // The client is not keeping up; it catches up through Last-Event-ID on reconnect
+            log.debug("Closing notification stream of user {}: send queue full", stream.userId);
+            remove(stream);
+            return;
+        }
+        if (stream.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(stream));
+        }
+    }
+
+    private void drain(Stream stream) {
+        while (true) {
+            Outgoing event;
+            while ((event = stream.queue.poll()) != null) {
+                if (!send(stream, event)) {
+                    stream.queue.clear();
+                    stream.draining.set(false);
+                    return;
+                }
+            }
+            stream.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared
+            // has no drainer yet; take it over unless another sender already has
+            if (stream.queue.isEmpty() || !stream.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(Stream stream, Outgoing event) {
+        if (stream.closed.get()) {
+            return false;
+        }
+        stream.writingSinceMillis = System.currentTimeMillis();
+        try {
+            if (event.notification() != null) {
+                stream.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.notification().getNotificationId()))
+                        .name("notification")
+                        .data(event.notification(), MediaType.APPLICATION_JSON));
+            } else {
+                stream.emitter.send(SseEmitter.event().comment(event.comment()));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            remove(stream);
+            return false;
+        } finally {
+            stream.writingSinceMillis = 0;
+        }
+    }
+
+    private void remove(Stream stream) {
+        if (!stream.closed.compareAndSet(false, true)) {
+            return;
+        }
+        CopyOnWriteArrayList<Stream> userStreams = streams.get(stream.userId);
+        if (userStreams != null && userStreams.remove(stream)) {
+            openStreams.decrementAndGet();
+            if (userStreams.isEmpty()) {
+                streams.computeIfPresent(stream.userId, (id, current) -> {
+                    if (!current.isEmpty()) {
+                        return current;
+                    }
+                    delivered.remove(id);
+                    return null;
+                });
+            }
+        }
+        stream.emitter.complete();
+    }
+
+    // Rows already committed when the user connects count as seen (the client lists them
+    // itself); only those within the overlap are kept, since a lower id may still commit
+    private Delivered startDelivery(Long userId) {
+        long now = System.currentTimeMillis();
+        Long floor = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(notification_id), 0) FROM notifications WHERE user_id = ? AND sent_at < ?",
+                Long.class, userId, new Timestamp(now - overlapMillis));
+        Delivered sent = new Delivered(floor != null ? floor : 0);
+        jdbcTemplate.queryForList(
+                "SELECT notification_id FROM notifications WHERE user_id = ? AND notification_id > ? " +
+                "ORDER BY notification_id", Long.class, userId, sent.floor)
+                .forEach(id -> sent.sent(id, now));
+        return sent;
+    }
+
+    // Everything after lastEventId, plus what committed late around it: rows written
+    // within the overlap before it
+    private List<NotificationResponse> missedSince(Long userId, Long lastEventId) {
+        List<Timestamp> lastSentAt = jdbcTemplate.queryForList(
+                "SELECT sent_at FROM notifications WHERE notification_id = ? AND user_id = ?",
+                Timestamp.class, lastEventId, userId);
+        if (lastSentAt.isEmpty() || lastSentAt.get(0) == null) {
+            return jdbcTemplate.query(
+                    COLUMNS + "WHERE user_id = ? AND notification_id > ? ORDER BY notification_id LIMIT ?",
+                    ROW_MAPPER, userId, lastEventId, replayLimit);
+        }
+        Timestamp lateFrom = new Timestamp(lastSentAt.get(0).getTime() - overlapMillis);
+        return jdbcTemplate.query(
+                COLUMNS + "WHERE user_id = ? AND (notification_id > ? OR sent_at >= ?) " +
+                "ORDER BY notification_id LIMIT ?",
+                ROW_MAPPER, userId, lastEventId, lateFrom, replayLimit);
+    }
+}
@@ -0,0 +1,123 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator for transaction reference and receipt numbers.
+ *
+ * Ids use a snowflake layout: 41 bits of milliseconds since 2025-01-01, 10 bits of node id
+ * and a 12 bit per-millisecond sequence. They are unique across nodes as long as no two
+ * running nodes share a node id, and strictly increasing on each node, even when the
+ * wall clock steps backwards. Numbers are rendered as the prefix plus 13 fixed-width
+ * base-36 digits, so they sort in issue order.
+ *
+ * The node id is {@code idgen.node-id} when set. Otherwise the node leases a free one
+ * from scheduler_locks at startup and keeps renewing it, so nodes started from the same
+ * configuration still get distinct ids; startup fails when all of them are taken.
+ */
+@Component
+@Slf4j
+public class ReferenceNumberGenerator {
+
+    private static final long EPOCH_MILLIS = 1735689600000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static final String NODE_LOCK_PREFIX = "idgen-node-";
+
+    private final SchedulerLock schedulerLock;
+    private final Duration lease;
+    private volatile long nodeId;
+
+    // Timestamp and sequence of the last issued id, packed as (timestamp << SEQUENCE_BITS) | sequence
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public ReferenceNumberGenerator(@Value("${idgen.node-id:-1}") long configuredNodeId,
+            @Value("${idgen.lease-seconds:300}") long leaseSeconds,
+            SchedulerLock schedulerLock) {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("idgen.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.schedulerLock = configuredNodeId >= 0 ? null : schedulerLock;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.nodeId = configuredNodeId >= 0 ? configuredNodeId : leaseNodeId();
+    }
+
+    ReferenceNumberGenerator(long nodeId) {
+        this(nodeId, 300, null);
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long elapsed = System.currentTimeMillis() - EPOCH_MILLIS;
+            // A new millisecond restarts the sequence; otherwise bump it, and let an exhausted
+            // sequence carry into the timestamp instead of spinning until the clock catches up.
+            long next = elapsed > (last >>> SEQUENCE_BITS) ? elapsed << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String nextReference(String prefix) {
+        long id = nextId();
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + ENCODED_LENGTH];
+        prefix.getChars(0, prefixLength, chars, 0);
+        for (int i = chars.length - 1; i >= prefixLength; i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(chars);
+    }
+
+    // Renews well inside the lease. If the lease was lost anyway (the database was out of
+    // reach for longer than the lease), another node may have taken the id, so a new one
+    // is leased before more ids are issued.
+    @Scheduled(fixedDelayString = "${idgen.renew-ms:60000}")
+    public void renewLease() {
+        if (schedulerLock == null || schedulerLock.renew(NODE_LOCK_PREFIX + nodeId, lease)) {
+            return;
+        }
+        long lost = nodeId;
+        nodeId = leaseNodeId();
+        log.error("Lost the lease on idgen node id {}; now using {}", lost, nodeId);
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (schedulerLock != null) {
+            schedulerLock.release(NODE_LOCK_PREFIX + nodeId);
+        }
+    }
+
+    private long leaseNodeId() {
+        // Starting at a random id keeps nodes booting together from contending on the same rows
+        int start = ThreadLocalRandom.current().nextInt((int) MAX_NODE_ID + 1);
+        for (int i = 0; i <= MAX_NODE_ID; i++) {
+            long candidate = (start + i) & MAX_NODE_ID;
+            if (schedulerLock.tryAcquire(NODE_LOCK_PREFIX + candidate, lease)) {
+                log.info("Leased idgen node id {}", candidate);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " idgen node ids are leased by running nodes");
+    }
+}
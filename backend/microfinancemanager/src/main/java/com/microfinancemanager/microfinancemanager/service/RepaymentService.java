@@ -2,18 +2,22 @@ package com.microfinancemanager.microfinancemanager.service;
 
 import com.microfinancemanager.microfinancemanager.dto.repayment.CreateRepaymentRequest;
 import com.microfinancemanager.microfinancemanager.dto.repayment.RepaymentResponse;
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
+import com.microfinancemanager.microfinancemanager.model.IdempotencyRecord;
 import com.microfinancemanager.microfinancemanager.model.Loan;
 import com.microfinancemanager.microfinancemanager.model.Repayment;
 import com.microfinancemanager.microfinancemanager.repository.LoanRepository;
 import com.microfinancemanager.microfinancemanager.repository.RepaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.UUID;
+import java.time.LocalDate;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +26,14 @@ public class RepaymentService {
     private final RepaymentRepository repaymentRepository;
     private final LoanRepository loanRepository;
     private final NotificationService notificationService;
+    private final IdempotencyService idempotencyService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardAggregateService dashboardAggregates;
+    private final ReportRollupService reportRollups;
+    private final LoanScheduleService loanScheduleService;
+    private final LoanDefaultJob loanDefaultJob;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<RepaymentResponse> getLoanRepayments(Long loanId, Pageable pageable) {
         return repaymentRepository.findByLoan_LoanId(loanId, pageable)
@@ -34,22 +46,38 @@ public class RepaymentService {
         return mapToRepaymentResponse(repayment);
     }
 
-    @Transactional
     public RepaymentResponse createRepayment(CreateRepaymentRequest request) {
-        Loan loan = loanRepository.findById(request.getLoanId())
+        return createRepayment(request, null);
+    }
+
+    public RepaymentResponse createRepayment(CreateRepaymentRequest request, String idempotencyKey) {
+        return idempotencyService.execute(IdempotencyRecord.Scope.REPAYMENT, idempotencyKey, request,
+                RepaymentResponse.class,
+                () -> transactionTemplate.execute(status -> postRepayment(request, idempotencyKey)));
+    }
+
+    private RepaymentResponse postRepayment(CreateRepaymentRequest request, String idempotencyKey) {
+        Loan loan = loanRepository.findByIdForUpdate(request.getLoanId())
                 .orElseThrow(() -> new RuntimeException("Loan not found"));
+        Loan.LoanStatus previousStatus = loan.getStatus();
+        BigDecimal previousPrincipal = loan.getPrincipalBalance();
 
-        if (loan.getStatus() != Loan.LoanStatus.ACTIVE) {
+        // Defaulted loans still take repayments, and are paid off like any other
+        if (loan.getStatus() != Loan.LoanStatus.ACTIVE && loan.getStatus() != Loan.LoanStatus.DEFAULTED) {
             throw new RuntimeException("Loan is not active");
         }
 
-        if (request.getAmount().compareTo(loan.getPrincipalBalance()) > 0) {
-            throw new RuntimeException("Repayment amount exceeds remaining balance");
-        }
+        // Accrued late penalty is settled first, the rest pays the schedule in order
+        BigDecimal penaltyPart = request.getAmount().min(loan.getAccruedPenalty());
+        BigDecimal schedulePart = request.getAmount().subtract(penaltyPart);
+        LoanScheduleService.Allocation allocation = loanScheduleService.allocate(loan, schedulePart);
 
         Repayment repayment = Repayment.builder()
                 .loan(loan)
                 .amount(request.getAmount())
+                .penaltyAmount(penaltyPart)
+                .interestAmount(allocation.interest())
+                .principalAmount(allocation.principal())
                 .method(Repayment.PaymentMethod.valueOf(request.getMethod()))
                 .reference(request.getReference())
                 .status(Repayment.RepaymentStatus.SUCCESSFUL)
@@ -59,14 +87,21 @@ public class RepaymentService {
         repayment = repaymentRepository.save(repayment);
 
         // Update loan balance
-        loan.setPrincipalBalance(loan.getPrincipalBalance().subtract(request.getAmount()));
-        loan.setTotalRepaid(loan.getTotalRepaid().add(request.getAmount()));
+        loan.setAccruedPenalty(loan.getAccruedPenalty().subtract(penaltyPart));
+        loan.setPrincipalBalance(loan.getPrincipalBalance().subtract(allocation.principal()));
+        loan.setTotalRepaid(loan.getTotalRepaid().add(schedulePart));
 
         if (loan.getPrincipalBalance().compareTo(BigDecimal.ZERO) == 0) {
             loan.setStatus(Loan.LoanStatus.PAID_OFF);
         }
 
         loanRepository.save(loan);
+        loanScheduleService.syncInstallments(loan);
+
+        dashboardAggregates.record(DashboardAggregateService.Metric.REPAYMENTS, 1, request.getAmount());
+        reportRollups.record(ReportRollupService.REPAYMENT, request.getAmount());
+        dashboardAggregates.recordLoanChange(previousStatus, previousPrincipal, loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("REPAYMENT"));
 
         // Send notification
         notificationService.sendNotification(
@@ -76,7 +111,9 @@ public class RepaymentService {
                 repayment.getRepaymentId()
         );
 
-        return mapToRepaymentResponse(repayment);
+        RepaymentResponse response = mapToRepaymentResponse(repayment);
+        idempotencyService.recordResponse(IdempotencyRecord.Scope.REPAYMENT, idempotencyKey, request, response);
+        return response;
     }
 
     @Transactional
@@ -86,6 +123,7 @@ public class RepaymentService {
 
         repayment.setStatus(status);
         repayment = repaymentRepository.save(repayment);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("REPAYMENT"));
 
         return mapToRepaymentResponse(repayment);
     }
@@ -95,12 +133,26 @@ public class RepaymentService {
         Repayment repayment = repaymentRepository.findById(repaymentId)
                 .orElseThrow(() -> new RuntimeException("Repayment not found"));
 
-        Loan loan = repayment.getLoan();
-
-        // Restore loan balance
-        loan.setPrincipalBalance(loan.getPrincipalBalance().add(repayment.getAmount()));
-        loan.setTotalRepaid(loan.getTotalRepaid().subtract(repayment.getAmount()));
+        Loan loan = loanRepository.findByIdForUpdate(repayment.getLoan().getLoanId())
+                .orElseThrow(() -> new RuntimeException("Loan not found"));
+        if (repayment.getStatus() != Repayment.RepaymentStatus.SUCCESSFUL) {
+            throw new RuntimeException("Only successful repayments can be reversed");
+        }
+        Loan.LoanStatus previousStatus = loan.getStatus();
+        BigDecimal previousPrincipal = loan.getPrincipalBalance();
+
+        // Restore loan balance and the penalty the repayment settled
+        BigDecimal schedulePart = repayment.getAmount().subtract(repayment.getPenaltyAmount());
+        loan.setAccruedPenalty(loan.getAccruedPenalty().add(repayment.getPenaltyAmount()));
+        loan.setPrincipalBalance(loan.getPrincipalBalance().add(repayment.getPrincipalAmount()));
+        loan.setTotalRepaid(loan.getTotalRepaid().subtract(schedulePart));
+        if (loan.getStatus() == Loan.LoanStatus.PAID_OFF && loan.getPrincipalBalance().signum() > 0) {
+            reopen(loan);
+        }
         loanRepository.save(loan);
+        loanScheduleService.syncInstallments(loan);
+        dashboardAggregates.recordLoanChange(previousStatus, previousPrincipal, loan);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("REPAYMENT"));
 
         repayment.setStatus(Repayment.RepaymentStatus.FAILED);
         repaymentRepository.save(repayment);
@@ -114,8 +166,20 @@ public class RepaymentService {
         );
     }
 
+    // The default job never revisits due dates behind its watermark, so a reopened loan
+    // that is past the threshold goes straight back to DEFAULTED (non-accrual). One that
+    // is not starts accruing penalty from today, not for the days it stood paid off.
+    private void reopen(Loan loan) {
+        if (loanDefaultJob.isPastDefaultThreshold(loan.getDueDate())) {
+            loan.setStatus(Loan.LoanStatus.DEFAULTED);
+        } else {
+            loan.setStatus(Loan.LoanStatus.ACTIVE);
+            loan.setLastAccrualDate(LocalDate.now());
+        }
+    }
+
     private String generateReceiptNumber() {
-        return "RCP" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        return referenceNumberGenerator.nextReference("RCP");
     }
 
     private RepaymentResponse mapToRepaymentResponse(Repayment repayment) {
@@ -123,6 +187,9 @@ public class RepaymentService {
                 .repaymentId(repayment.getRepaymentId())
                 .loanId(repayment.getLoan().getLoanId())
                 .amount(repayment.getAmount())
+                .penaltyAmount(repayment.getPenaltyAmount())
+                .interestAmount(repayment.getInterestAmount())
+                .principalAmount(repayment.getPrincipalAmount())
                 .timestamp(repayment.getTimestamp())
                 .method(repayment.getMethod().name())
                 .reference(repayment.getReference())
@@ -0,0 +1,20 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class ReportCacheInvalidator {
+
+    private final ReportService reportService;
+
+    // After commit, so a dashboard recomputed right away already sees the change;
+    // a rolled-back change never invalidates anything
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportDataChanged(ReportDataChangedEvent event) {
+        reportService.invalidateCaches(event.source());
+    }
+}
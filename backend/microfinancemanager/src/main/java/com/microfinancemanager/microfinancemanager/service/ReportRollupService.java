@@ -0,0 +1,203 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.dto.report.TimeSeriesPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Daily count/amount buckets per metric in report_rollups, behind the time-series
+ * reports. Metrics are TRANSACTION_&lt;TYPE&gt;, DISBURSEMENT and REPAYMENT.
+ *
+ * Postings add to today's bucket through {@link #record}, buffered per transaction and
+ * flushed before commit in metric order, like the dashboard counters. Today's buckets
+ * are spread over slot rows so concurrent postings do not contend on one row; the
+ * nightly compaction folds the slots of closed days into slot 0. Weekly and monthly
+ * series are summed from the daily buckets at query time, so a year of data is at
+ * most a few thousand rows whatever the size of the transactions table.
+ */
+@Service
+@Slf4j
+public class ReportRollupService implements SmartInitializingSingleton {
+
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    public static final String DISBURSEMENT = "DISBURSEMENT";
+    public static final String REPAYMENT = "REPAYMENT";
+
+    private static final String UPSERT =
+            "INSERT INTO report_rollups (bucket_date, metric, slot, count_value, amount_value) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE count_value = count_value + VALUES(count_value), " +
+            "amount_value = amount_value + VALUES(amount_value)";
+
+    private static final String REBUILD_LOCK = "report-rollups-rebuild";
+
+    private static final String BASE_BUCKETS =
+            "SELECT DATE(timestamp), CONCAT('TRANSACTION_', type), COUNT(*), SUM(amount) " +
+            "FROM transactions GROUP BY DATE(timestamp), type " +
+            "UNION ALL SELECT DATE(start_date), 'DISBURSEMENT', COUNT(*), SUM(amount) FROM loans " +
+            "WHERE status IN ('ACTIVE','PAID_OFF','DEFAULTED') AND start_date IS NOT NULL GROUP BY DATE(start_date) " +
+            "UNION ALL SELECT DATE(timestamp), 'REPAYMENT', COUNT(*), SUM(amount) FROM repayments " +
+            "GROUP BY DATE(timestamp)";
+
+    private static final String COMPACT_MERGE =
+            "INSERT INTO report_rollups (bucket_date, metric, slot, count_value, amount_value) " +
+            "SELECT * FROM (SELECT bucket_date, metric, 0 AS slot, SUM(count_value) AS total_count, " +
+            "SUM(amount_value) AS total_amount FROM report_rollups WHERE bucket_date < ? AND slot > 0 " +
+            "GROUP BY bucket_date, metric) AS merged " +
+            "ON DUPLICATE KEY UPDATE count_value = count_value + merged.total_count, " +
+            "amount_value = amount_value + merged.total_amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLock schedulerLock;
+    private final int slots;
+
+    public ReportRollupService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SchedulerLock schedulerLock,
+            @Value("${reports.rollups.slots:8}") int slots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.schedulerLock = schedulerLock;
+        this.slots = Math.max(1, slots);
+    }
+
+    public static String transactionMetric(Enum<?> type) {
+        return "TRANSACTION_" + type.name();
+    }
+
+    public void record(String metric, BigDecimal amount) {
+        record(metric, 1, amount);
+    }
+
+    public void record(String metric, long count, BigDecimal amount) {
+        LocalDate today = LocalDate.now();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(UPSERT, Date.valueOf(today), metric, randomSlot(), count, amount);
+            return;
+        }
+
+        PendingBuckets pending = (PendingBuckets) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingBuckets(today, randomSlot());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(metric, count, amount);
+    }
+
+    public List<TimeSeriesPoint> getSeries(Granularity granularity, LocalDate startDate, LocalDate endDate) {
+        String period = switch (granularity) {
+            case DAY -> "bucket_date";
+            case WEEK -> "DATE_SUB(bucket_date, INTERVAL WEEKDAY(bucket_date) DAY)";
+            case MONTH -> "DATE_SUB(bucket_date, INTERVAL DAYOFMONTH(bucket_date) - 1 DAY)";
+        };
+        String sql = "SELECT " + period + " AS period, metric, SUM(count_value), SUM(amount_value) " +
+                "FROM report_rollups WHERE bucket_date BETWEEN ? AND ? " +
+                "GROUP BY period, metric ORDER BY period, metric";
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new TimeSeriesPoint(rs.getDate(1).toLocalDate(), rs.getString(2),
+                        rs.getLong(3), rs.getBigDecimal(4)),
+                Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * Folds the slot rows of closed days into slot 0. Yesterday is left alone in case a
+     * posting that started just before midnight has not committed yet.
+     */
+    @Scheduled(cron = "${reports.rollups.compaction-cron:0 15 0 * * *}")
+    public void compact() {
+        Date cutoff = Date.valueOf(LocalDate.now().minusDays(1));
+        Integer merged = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(COMPACT_MERGE, cutoff);
+            return jdbcTemplate.update("DELETE FROM report_rollups WHERE bucket_date < ? AND slot > 0", cutoff);
+        });
+        if (merged != null && merged > 0) {
+            log.info("Compacted {} report rollup slot rows", merged);
+        }
+    }
+
+    /**
+     * Seeds the buckets from the base tables when report_rollups is empty, the same way
+     * the dashboard counters are seeded: before the web server starts, under a lease.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        schedulerLock.runExclusively(REBUILD_LOCK, Duration.ofMinutes(10), this::rebuildIfEmpty);
+    }
+
+    private void rebuildIfEmpty() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Locks the empty table's gap so concurrent upserts wait for the seed
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM report_rollups FOR UPDATE", Integer.class);
+            if (rows == null || rows != 0) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            List<Object[]> buckets = jdbcTemplate.query(BASE_BUCKETS, (rs, rowNum) -> new Object[] {
+                    rs.getDate(1), rs.getString(2), 0, rs.getLong(3), rs.getBigDecimal(4)});
+            jdbcTemplate.batchUpdate(UPSERT, buckets);
+            log.info("Rebuilt {} report rollup buckets from base tables in {} ms",
+                    buckets.size(), System.currentTimeMillis() - started);
+        });
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    private static final class Bucket {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+    }
+
+    private final class PendingBuckets implements TransactionSynchronization {
+
+        private final LocalDate day;
+        private final int slot;
+        // Sorted, so every transaction upserts its rows in the same order
+        private final Map<String, Bucket> buckets = new TreeMap<>();
+
+        PendingBuckets(LocalDate day, int slot) {
+            this.day = day;
+            this.slot = slot;
+        }
+
+        void add(String metric, long count, BigDecimal amount) {
+            Bucket bucket = buckets.computeIfAbsent(metric, key -> new Bucket());
+            bucket.count += count;
+            bucket.amount = bucket.amount.add(amount);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<Object[]> rows = new ArrayList<>(buckets.size());
+            buckets.forEach((metric, bucket) ->
+                    rows.add(new Object[] {Date.valueOf(day), metric, slot, bucket.count, bucket.amount}));
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReportRollupService.this);
+        }
+    }
+}
@@ -1,78 +1,144 @@
 package com.microfinancemanager.microfinancemanager.service;
 
+import com.microfinancemanager.microfinancemanager.cache.SingleFlightCache;
 import com.microfinancemanager.microfinancemanager.dto.report.DashboardResponse;
-import com.microfinancemanager.microfinancemanager.model.Account;
-import com.microfinancemanager.microfinancemanager.model.Loan;
-import com.microfinancemanager.microfinancemanager.model.User;
-import com.microfinancemanager.microfinancemanager.repository.*;
-import lombok.RequiredArgsConstructor;
+import com.microfinancemanager.microfinancemanager.dto.report.ReportBreakdownResponse;
+import com.microfinancemanager.microfinancemanager.dto.report.TimeSeriesResponse;
+import com.microfinancemanager.microfinancemanager.repository.ReportingRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ReportService {
 
-    private final UserRepository userRepository;
-    private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
-    private final LoanRepository loanRepository;
-    private final RepaymentRepository repaymentRepository;
+    private final DashboardAggregateService dashboardAggregates;
+    private final ReportingRepository reportingRepository;
+    private final ReportRollupService reportRollups;
+    private final SingleFlightCache<String, DashboardResponse> dashboardCache;
+    private final SingleFlightCache<BreakdownKey, ReportBreakdownResponse> breakdownCache;
+
+    private record BreakdownKey(LocalDate startDate, LocalDate endDate) {
+
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return !startDate.isAfter(to) && !endDate.isBefore(from);
+        }
+    }
+
+    public ReportService(DashboardAggregateService dashboardAggregates,
+            ReportingRepository reportingRepository,
+            ReportRollupService reportRollups,
+            @Value("${reports.cache.ttl-seconds:30}") long cacheTtlSeconds,
+            @Value("${reports.cache.dashboard-ttl-seconds:2}") long dashboardTtlSeconds,
+            @Value("${reports.cache.breakdown-max-entries:1000}") int breakdownMaxEntries) {
+        this.dashboardAggregates = dashboardAggregates;
+        this.reportingRepository = reportingRepository;
+        this.reportRollups = reportRollups;
+        this.dashboardCache = new SingleFlightCache<>(Duration.ofSeconds(dashboardTtlSeconds));
+        this.breakdownCache = new SingleFlightCache<>(Duration.ofSeconds(cacheTtlSeconds), breakdownMaxEntries);
+    }
 
     public DashboardResponse getAdminDashboard() {
-        // User statistics
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.findByStatus(User.UserStatus.ACTIVE).size();
-
-        // Account statistics
-        long totalAccounts = accountRepository.count();
-        BigDecimal totalBalance = accountRepository.findAll().stream()
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Transaction statistics
-        long totalTransactions = transactionRepository.count();
-        BigDecimal totalTransactionAmount = transactionRepository.findAll().stream()
-                .map(transaction -> transaction.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Loan statistics
-        long totalLoans = loanRepository.count();
-        long activeLoans = loanRepository.findByStatus(Loan.LoanStatus.ACTIVE).size();
-        long pendingLoans = loanRepository.findByStatus(Loan.LoanStatus.PENDING).size();
-        
-        BigDecimal totalLoanAmount = loanRepository.findAll().stream()
-                .map(Loan::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalOutstandingBalance = loanRepository.findAll().stream()
-                .filter(loan -> loan.getStatus() == Loan.LoanStatus.ACTIVE)
-                .map(Loan::getPrincipalBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Repayment statistics
-        long totalRepayments = repaymentRepository.count();
-        BigDecimal totalRepaymentAmount = repaymentRepository.findAll().stream()
-                .map(repayment -> repayment.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return dashboardCache.get("dashboard", this::computeAdminDashboard);
+    }
+
+    public ReportBreakdownResponse getReportBreakdown(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        return breakdownCache.get(new BreakdownKey(startDate, endDate), () -> computeReportBreakdown(startDate, endDate));
+    }
+
+    public TimeSeriesResponse getTimeSeries(ReportRollupService.Granularity granularity,
+            LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        if (startDate.plusYears(5).isBefore(endDate)) {
+            throw new RuntimeException("Date range must not exceed 5 years");
+        }
+        return TimeSeriesResponse.builder()
+                .granularity(granularity.name())
+                .startDate(startDate)
+                .endDate(endDate)
+                .points(reportRollups.getSeries(granularity, startDate, endDate))
+                .build();
+    }
+
+    /**
+     * Drops the cached reports a committed change can affect. The dashboard is not
+     * touched: it only sums the counter rows, so it is recomputed on its short TTL
+     * rather than after every posting. A posting only adds today's transactions to a
+     * breakdown, so only ranges that include today are dropped (yesterday too, for a
+     * posting that committed just after midnight); loan and repayment changes move
+     * the status counts of every range.
+     */
+    public void invalidateCaches(String source) {
+        if ("TRANSACTION".equals(source)) {
+            LocalDate today = LocalDate.now();
+            breakdownCache.invalidateIf(key -> key.overlaps(today.minusDays(1), today));
+        } else {
+            breakdownCache.invalidateAll();
+        }
+    }
+
+    public Map<String, SingleFlightCache.Stats> getCacheStats() {
+        Map<String, SingleFlightCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("dashboard", dashboardCache.stats());
+        stats.put("breakdown", breakdownCache.stats());
+        return stats;
+    }
+
+    private DashboardResponse computeAdminDashboard() {
+        // Every figure comes from the running totals in dashboard_counters,
+        // so the dashboard never scans the base tables
+        Map<DashboardAggregateService.Metric, DashboardAggregateService.Totals> totals = dashboardAggregates.totals();
+
+        DashboardAggregateService.Totals users = totals.get(DashboardAggregateService.Metric.USERS);
+        DashboardAggregateService.Totals activeUsers = totals.get(DashboardAggregateService.Metric.ACTIVE_USERS);
+        DashboardAggregateService.Totals accounts = totals.get(DashboardAggregateService.Metric.ACCOUNTS);
+        DashboardAggregateService.Totals transactions = totals.get(DashboardAggregateService.Metric.TRANSACTIONS);
+        DashboardAggregateService.Totals loans = totals.get(DashboardAggregateService.Metric.LOANS);
+        DashboardAggregateService.Totals activeLoans = totals.get(DashboardAggregateService.Metric.ACTIVE_LOANS);
+        DashboardAggregateService.Totals pendingLoans = totals.get(DashboardAggregateService.Metric.PENDING_LOANS);
+        DashboardAggregateService.Totals repayments = totals.get(DashboardAggregateService.Metric.REPAYMENTS);
 
         return DashboardResponse.builder()
-                .totalUsers(totalUsers)
-                .activeUsers(activeUsers)
-                .totalAccounts(totalAccounts)
-                .totalBalance(totalBalance)
-                .totalTransactions(totalTransactions)
-                .totalTransactionAmount(totalTransactionAmount)
-                .totalLoans(totalLoans)
-                .activeLoans(activeLoans)
-                .totalLoanAmount(totalLoanAmount)
-                .totalOutstandingBalance(totalOutstandingBalance)
-                .pendingLoanApplications(pendingLoans)
-                .totalRepayments(totalRepayments)
-                .totalRepaymentAmount(totalRepaymentAmount)
+                .totalUsers(users.count())
+                .activeUsers(activeUsers.count())
+                .totalAccounts(accounts.count())
+                .totalBalance(accounts.amount())
+                .totalTransactions(transactions.count())
+                .totalTransactionAmount(transactions.amount())
+                .totalLoans(loans.count())
+                .activeLoans(activeLoans.count())
+                .totalLoanAmount(loans.amount())
+                .totalOutstandingBalance(activeLoans.amount())
+                .pendingLoanApplications(pendingLoans.count())
+                .totalRepayments(repayments.count())
+                .totalRepaymentAmount(repayments.amount())
+                .build();
+    }
+
+    private ReportBreakdownResponse computeReportBreakdown(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+
+        return ReportBreakdownResponse.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .usersByStatus(reportingRepository.countUsersByStatus())
+                .accountsByStatus(reportingRepository.countAccountsByStatus())
+                .loansByStatus(reportingRepository.countLoansByStatus())
+                .transactionsByType(reportingRepository.sumTransactionsByType(from, to))
+                .transactionsByDay(reportingRepository.sumTransactionsByDay(from, to))
                 .build();
     }
 }
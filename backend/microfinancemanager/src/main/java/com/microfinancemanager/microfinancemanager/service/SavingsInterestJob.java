@@ -0,0 +1,259 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
+import com.microfinancemanager.microfinancemanager.model.Transaction;
+import com.microfinancemanager.microfinancemanager.repository.AccountRepository;
+import com.microfinancemanager.microfinancemanager.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Period-end interest on SAVINGS and INVESTMENT accounts, paid on the average daily
+ * balance of the period.
+ *
+ * Daily balances are never rebuilt from history: every balance change folds the days
+ * the previous balance was held into accounts.balance_days, so at period end the sum
+ * of daily closing balances is balance_days plus the current balance for the days
+ * since the last change. Accounts are walked in keyset chunks; each chunk locks its
+ * rows, credits the interest and resets the accumulator with one set-based UPDATE,
+ * and records the postings as INTEREST transactions in one batched insert. Both
+ * statements evaluate the same SQL expression on locked rows, so the amount credited
+ * and the amount posted always agree. interest_posted_through makes reruns no-ops.
+ *
+ * A run holds the job's SchedulerLock lease, renewed after every chunk, so only one
+ * node posts at a time.
+ */
+@Component
+@Slf4j
+public class SavingsInterestJob {
+
+    static final String JOB_NAME = "savings-interest";
+
+    private static final String ELIGIBLE =
+            "account_type IN ('SAVINGS', 'INVESTMENT') AND status <> 'CLOSED' " +
+            "AND (interest_posted_through IS NULL OR interest_posted_through < :periodEnd)";
+
+    // Sum of daily closing balances through periodEnd times the daily rate
+    private static final String INTEREST =
+            "ROUND((balance_days + balance * GREATEST(DATEDIFF(:nextDay, COALESCE(balance_as_of, :nextDay)), 0)) " +
+            "* CASE account_type WHEN 'SAVINGS' THEN :savingsRate ELSE :investmentRate END / 36500, 2)";
+
+    private static final String LOCK_CHUNK =
+            "SELECT account_id, " + INTEREST + " AS interest FROM accounts " +
+            "WHERE account_id > :afterId AND " + ELIGIBLE + " ORDER BY account_id LIMIT :limit FOR UPDATE";
+
+    private static final String APPLY_INTEREST =
+            "UPDATE accounts SET balance = balance + " + INTEREST + ", balance_days = 0, " +
+            "balance_as_of = GREATEST(COALESCE(balance_as_of, :nextDay), :nextDay), " +
+            "interest_posted_through = :periodEnd WHERE account_id IN (:ids)";
+
+    private record Credit(long accountId, BigDecimal interest) {
+    }
+
+    private record ChunkResult(long lastAccountId, int accounts, int credited, BigDecimal amount) {
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final DashboardAggregateService dashboardAggregates;
+    private final ReportRollupService reportRollups;
+    private final JobCheckpointStore checkpoints;
+    private final SchedulerLock schedulerLock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final BigDecimal savingsRatePercent;
+    private final BigDecimal investmentRatePercent;
+    private final Duration lease;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SavingsInterestJob(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            ReferenceNumberGenerator referenceNumberGenerator,
+            DashboardAggregateService dashboardAggregates,
+            ReportRollupService reportRollups,
+            JobCheckpointStore checkpoints,
+            SchedulerLock schedulerLock,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${savings.interest.chunk-size:1000}") int chunkSize,
+            @Value("${savings.interest.savings-rate-percent:4.00}") BigDecimal savingsRatePercent,
+            @Value("${savings.interest.investment-rate-percent:7.00}") BigDecimal investmentRatePercent,
+            @Value("${savings.interest.lease-seconds:600}") long leaseSeconds) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.dashboardAggregates = dashboardAggregates;
+        this.reportRollups = reportRollups;
+        this.checkpoints = checkpoints;
+        this.schedulerLock = schedulerLock;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.savingsRatePercent = savingsRatePercent;
+        this.investmentRatePercent = investmentRatePercent;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${savings.interest.cron:0 0 2 1 * *}")
+    public void runMonthEnd() {
+        // Every node fires the schedule; those that lose the lease just skip the month
+        runExclusively(lastEndedPeriod(), new HashMap<>());
+    }
+
+    /**
+     * Last day of the most recently ended monthly period.
+     */
+    public LocalDate lastEndedPeriod() {
+        return LocalDate.now().withDayOfMonth(1).minusDays(1);
+    }
+
+    /**
+     * Posts interest for the period ending on periodEnd (inclusive), which must be the
+     * most recently ended period. Returns a summary, or throws if a run is already in
+     * progress on this node or another node holds the job's lease.
+     */
+    public Map<String, Object> run(LocalDate periodEnd) {
+        // balance_days holds every day since the last posting, so posting an older
+        // period would pay it interest on the days of the periods after it
+        if (!periodEnd.equals(lastEndedPeriod())) {
+            throw new RuntimeException("Interest can only be posted for the period that ended on " + lastEndedPeriod());
+        }
+        Map<String, Object> summary = new HashMap<>();
+        if (!runExclusively(periodEnd, summary)) {
+            throw new RuntimeException("Savings interest posting is already running");
+        }
+        return summary;
+    }
+
+    // The lease is re-entrant for its holder, so it does not stop a second run on the
+    // node that holds it; the local flag does
+    private boolean runExclusively(LocalDate periodEnd, Map<String, Object> summary) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            return schedulerLock.runExclusively(JOB_NAME, lease, () -> summary.putAll(post(periodEnd)));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> post(LocalDate periodEnd) {
+        JobCheckpointStore.Checkpoint checkpoint = checkpoints.load(JOB_NAME);
+        long lastKey = 0;
+        long processed = 0;
+        if (checkpoint != null && periodEnd.equals(checkpoint.runDate())) {
+            if (checkpoint.completed()) {
+                log.info("Savings interest for period ending {} already posted", periodEnd);
+                return summary(periodEnd, checkpoint.processed(), 0, BigDecimal.ZERO);
+            }
+            lastKey = checkpoint.lastKey();
+            processed = checkpoint.processed();
+            log.info("Resuming savings interest for period ending {} after account {}", periodEnd, lastKey);
+        }
+
+        long started = System.currentTimeMillis();
+        long credited = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        while (true) {
+            long afterId = lastKey;
+            ChunkResult chunk = transactionTemplate.execute(status -> postChunk(afterId, periodEnd));
+            if (chunk == null || chunk.accounts() == 0) {
+                break;
+            }
+            lastKey = chunk.lastAccountId();
+            processed += chunk.accounts();
+            credited += chunk.credited();
+            total = total.add(chunk.amount());
+            checkpoints.save(JOB_NAME, periodEnd, lastKey, processed, false);
+            if (!schedulerLock.renew(JOB_NAME, lease)) {
+                throw new RuntimeException("Lost the savings interest lease");
+            }
+        }
+        checkpoints.save(JOB_NAME, periodEnd, lastKey, processed, true);
+        if (credited > 0) {
+            eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Savings interest for period ending {}: {} accounts, {} credited, {} paid in {} ms ({} accounts/s)",
+                periodEnd, processed, credited, total, elapsed, processed * 1000 / elapsed);
+        return summary(periodEnd, processed, credited, total);
+    }
+
+    private ChunkResult postChunk(long afterId, LocalDate periodEnd) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", chunkSize)
+                .addValue("periodEnd", Date.valueOf(periodEnd))
+                .addValue("nextDay", Date.valueOf(periodEnd.plusDays(1)))
+                .addValue("savingsRate", savingsRatePercent)
+                .addValue("investmentRate", investmentRatePercent);
+        List<Credit> credits = namedParameterJdbcTemplate.query(LOCK_CHUNK, params,
+                (rs, rowNum) -> new Credit(rs.getLong(1), rs.getBigDecimal(2)));
+        if (credits.isEmpty()) {
+            return new ChunkResult(afterId, 0, 0, BigDecimal.ZERO);
+        }
+
+        List<Long> ids = new ArrayList<>(credits.size());
+        List<Transaction> postings = new ArrayList<>();
+        BigDecimal paid = BigDecimal.ZERO;
+        for (Credit credit : credits) {
+            ids.add(credit.accountId());
+            if (credit.interest().signum() > 0) {
+                postings.add(posting(credit, periodEnd));
+                paid = paid.add(credit.interest());
+            }
+        }
+        namedParameterJdbcTemplate.update(APPLY_INTEREST, params.addValue("ids", ids));
+
+        // Through JPA so the rows take their ids from the transaction id generator
+        transactionRepository.saveAll(postings);
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 0, paid);
+        dashboardAggregates.record(DashboardAggregateService.Metric.TRANSACTIONS, postings.size(), paid);
+        reportRollups.record(ReportRollupService.transactionMetric(Transaction.TransactionType.INTEREST),
+                postings.size(), paid);
+        return new ChunkResult(ids.get(ids.size() - 1), credits.size(), postings.size(), paid);
+    }
+
+    private Transaction posting(Credit credit, LocalDate periodEnd) {
+        return Transaction.builder()
+                .account(accountRepository.getReferenceById(credit.accountId()))
+                .type(Transaction.TransactionType.INTEREST)
+                .amount(credit.interest())
+                .description("Savings interest for period ending " + periodEnd)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .referenceNumber(referenceNumberGenerator.nextReference("INT"))
+                .build();
+    }
+
+    private Map<String, Object> summary(LocalDate periodEnd, long scanned, long credited, BigDecimal paid) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("periodEnd", periodEnd);
+        summary.put("accountsScanned", scanned);
+        summary.put("accountsCredited", credited);
+        summary.put("interestPaid", paid);
+        return summary;
+    }
+}
@@ -0,0 +1,66 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cluster-wide leases in scheduler_locks, so a scheduled job runs on one node at a
+ * time. A lease is taken with a single guarded UPDATE and expires on its own if the
+ * holder dies; long jobs call renew between batches to keep it.
+ */
+@Component
+@Slf4j
+public class SchedulerLock {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    public SchedulerLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Takes the named lease for this node if it is free, expired or already ours.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        jdbcTemplate.update("INSERT IGNORE INTO scheduler_locks (lock_name, locked_until) VALUES (?, NOW())", name);
+        return renew(name, lease);
+    }
+
+    public boolean renew(String name, Duration lease) {
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_by = ?, locked_until = NOW() + INTERVAL ? SECOND " +
+                "WHERE lock_name = ? AND (locked_until <= NOW() OR locked_by = ?)",
+                owner, lease.toSeconds(), name, owner);
+        return updated == 1;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = NOW() WHERE lock_name = ? AND locked_by = ?",
+                name, owner);
+    }
+
+    /**
+     * Runs the action while holding the lease. Returns false without running it when
+     * another node holds the lease.
+     */
+    public boolean runExclusively(String name, Duration lease, Runnable action) {
+        if (!tryAcquire(name, lease)) {
+            log.debug("Skipping {}: lease held by another node", name);
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            release(name);
+        }
+    }
+}
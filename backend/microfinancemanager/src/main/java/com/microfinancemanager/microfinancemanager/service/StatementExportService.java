@@ -0,0 +1,193 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes account statements straight from a streaming JDBC result set to the response.
+ *
+ * MySQL Connector/J only streams rows one at a time when the statement is forward-only,
+ * read-only and has a fetch size of Integer.MIN_VALUE; otherwise it buffers the whole
+ * result in the driver. Each row is formatted and written as soon as it is read, so
+ * memory stays flat no matter how long the statement is.
+ */
+@Service
+@Slf4j
+public class StatementExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String SELECT_COLUMNS =
+            "SELECT t.transaction_id, t.account_id, t.reference_number, t.timestamp, t.type, " +
+            "t.amount, t.status, t.description, t.transfer_reference FROM transactions t ";
+
+    private static final String[] HEADER = {
+            "transaction_id", "account_id", "reference_number", "timestamp", "type",
+            "amount", "status", "description", "transfer_reference"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatementExportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void exportAccountStatement(Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+            Format format, OutputStream out) throws IOException {
+        export("WHERE t.account_id = ?", accountId, startDate, endDate, format, out);
+    }
+
+    public void exportUserStatement(Long userId, LocalDateTime startDate, LocalDateTime endDate,
+            Format format, OutputStream out) throws IOException {
+        export("JOIN accounts a ON a.account_id = t.account_id WHERE a.user_id = ?",
+                userId, startDate, endDate, format, out);
+    }
+
+    private void export(String filter, Long ownerId, LocalDateTime startDate, LocalDateTime endDate,
+            Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(filter);
+        List<Object> params = new ArrayList<>();
+        params.add(ownerId);
+        if (startDate != null) {
+            sql.append(" AND t.timestamp >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND t.timestamp <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        sql.append(" ORDER BY t.timestamp, t.transaction_id");
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(String.join(",", HEADER));
+            writer.write('\n');
+        }
+
+        long started = System.currentTimeMillis();
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Integer.MIN_VALUE);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                return statement;
+            }, rs -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsvRow(rs, writer);
+                    } else {
+                        writeJsonRow(rs, writer);
+                    }
+                } catch (IOException e) {
+                    // Usually the client went away; abort the query rather than drain it
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        gzip.finish();
+        log.info("Exported {} statement rows as {} in {} ms", rows[0], format, System.currentTimeMillis() - started);
+    }
+
+    private void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        for (int i = 1; i <= HEADER.length; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            String value = columnText(rs, i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void writeJsonRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write('{');
+        for (int i = 1; i <= HEADER.length; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            writer.write('"');
+            writer.write(HEADER[i - 1]);
+            writer.write("\":");
+            String value = columnText(rs, i);
+            if (value == null) {
+                writer.write("null");
+            } else if (i == 1 || i == 2 || i == 6) {
+                // ids and amount are numbers; amount keeps its exact decimal text
+                writer.write(value);
+            } else {
+                writeJsonString(value, writer);
+            }
+        }
+        writer.write("}\n");
+    }
+
+    private String columnText(ResultSet rs, int column) throws SQLException {
+        if (column == 4) {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+        }
+        if (column == 6) {
+            return rs.getBigDecimal(column).toPlainString();
+        }
+        return rs.getString(column);
+    }
+
+    private void writeJsonString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
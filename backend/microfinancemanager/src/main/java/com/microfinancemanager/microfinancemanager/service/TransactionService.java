@@ -1,27 +1,74 @@
 package com.microfinancemanager.microfinancemanager.service;
 
+import com.microfinancemanager.microfinancemanager.dto.common.CursorPage;
+import com.microfinancemanager.microfinancemanager.dto.common.KeysetCursor;
+import com.microfinancemanager.microfinancemanager.dto.transaction.BatchTransactionRequest;
+import com.microfinancemanager.microfinancemanager.dto.transaction.BatchTransactionResponse;
 import com.microfinancemanager.microfinancemanager.dto.transaction.CreateTransactionRequest;
 import com.microfinancemanager.microfinancemanager.dto.transaction.TransactionResponse;
+import com.microfinancemanager.microfinancemanager.dto.transaction.TransferRequest;
+import com.microfinancemanager.microfinancemanager.dto.transaction.TransferResponse;
+import com.microfinancemanager.microfinancemanager.event.ReportDataChangedEvent;
 import com.microfinancemanager.microfinancemanager.model.Account;
+import com.microfinancemanager.microfinancemanager.model.IdempotencyRecord;
 import com.microfinancemanager.microfinancemanager.model.Transaction;
 import com.microfinancemanager.microfinancemanager.repository.AccountRepository;
 import com.microfinancemanager.microfinancemanager.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TransactionService {
 
+    private static final int MAX_TRANSFER_ATTEMPTS = 3;
+
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final NotificationService notificationService;
+    private final AccountLockStripes accountLocks;
+    private final IdempotencyService idempotencyService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardAggregateService dashboardAggregates;
+    private final ReportRollupService reportRollups;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong transferLockRetries = new AtomicLong();
+
+    @Value("${transactions.posting-mode:LOCKED}")
+    private PostingMode postingMode;
+
+    /**
+     * LOCKED loads the account under a striped lock and a row lock; ATOMIC moves the
+     * balance with one guarded UPDATE and never hydrates the account entity.
+     */
+    public enum PostingMode {
+        LOCKED, ATOMIC
+    }
 
     public Page<TransactionResponse> getAccountTransactions(Long accountId, 
             Transaction.TransactionType type, LocalDateTime startDate, 
@@ -37,27 +84,74 @@ public class TransactionService {
                 .map(this::mapToTransactionResponse);
     }
 
+    public CursorPage<TransactionResponse> getAccountTransactionsAfter(Long accountId,
+            Transaction.TransactionType type, LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<Transaction> rows = transactionRepository.findByAccountAfterCursor(accountId, type, startDate, endDate,
+                position != null ? position.timestamp() : null, position != null ? position.id() : null,
+                Limit.of(limit + 1));
+        return toCursorPage(rows, limit);
+    }
+
+    public CursorPage<TransactionResponse> getUserTransactionsAfter(Long userId,
+            Transaction.TransactionType type, LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, int limit) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<Transaction> rows = transactionRepository.findByUserAfterCursor(userId, type, startDate, endDate,
+                position != null ? position.timestamp() : null, position != null ? position.id() : null,
+                Limit.of(limit + 1));
+        return toCursorPage(rows, limit);
+    }
+
+    private CursorPage<TransactionResponse> toCursorPage(List<Transaction> rows, int limit) {
+        // One extra row was fetched only to learn whether another page exists
+        boolean hasNext = rows.size() > limit;
+        List<Transaction> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getTimestamp(), last.getTransactionId()).encode();
+        }
+        return new CursorPage<>(page.stream().map(this::mapToTransactionResponse).toList(), nextCursor, hasNext);
+    }
+
     public TransactionResponse getTransactionById(Long transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
         return mapToTransactionResponse(transaction);
     }
 
-    @Transactional
     public TransactionResponse createTransaction(CreateTransactionRequest request) {
-        Account account = accountRepository.findById(request.getAccountId())
+        return createTransaction(request, null);
+    }
+
+    public TransactionResponse createTransaction(CreateTransactionRequest request, String idempotencyKey) {
+        return idempotencyService.execute(IdempotencyRecord.Scope.TRANSACTION, idempotencyKey, request,
+                TransactionResponse.class, () -> {
+                    if (postingMode == PostingMode.ATOMIC) {
+                        return transactionTemplate.execute(
+                                status -> postTransactionAtomically(request, idempotencyKey));
+                    }
+                    // The stripe is held until the database transaction has committed, so the next
+                    // writer on this account always reads the balance this posting left behind.
+                    return accountLocks.withLock(request.getAccountId(),
+                            () -> transactionTemplate.execute(status -> postTransaction(request, idempotencyKey)));
+                });
+    }
+
+    private TransactionResponse postTransaction(CreateTransactionRequest request, String idempotencyKey) {
+        Account account = accountRepository.findByIdForUpdate(request.getAccountId())
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
         if (account.getStatus() != Account.AccountStatus.ACTIVE) {
             throw new RuntimeException("Account is not active");
         }
 
-        Transaction.TransactionType type = Transaction.TransactionType.valueOf(request.getType());
+        Transaction.TransactionType type = parsePostingType(request.getType());
 
         // Check balance for withdrawals
-        if (type == Transaction.TransactionType.WITHDRAWAL || 
-            type == Transaction.TransactionType.PAYMENT || 
-            type == Transaction.TransactionType.TRANSFER) {
+        if (isDebit(type)) {
             if (account.getBalance().compareTo(request.getAmount()) < 0) {
                 throw new RuntimeException("Insufficient balance");
             }
@@ -68,6 +162,37 @@ public class TransactionService {
 
         accountRepository.save(account);
 
+        return recordTransaction(account, account.getUser().getUserId(), type, request, idempotencyKey);
+    }
+
+    private TransactionResponse postTransactionAtomically(CreateTransactionRequest request, String idempotencyKey) {
+        Long accountId = request.getAccountId();
+        Transaction.TransactionType type = parsePostingType(request.getType());
+
+        // A single guarded UPDATE both checks and moves the balance; the affected row
+        // count tells us whether the account was active and covered the amount.
+        int updated;
+        if (isDebit(type)) {
+            updated = accountRepository.debitIfSufficient(accountId, request.getAmount());
+        } else if (type == Transaction.TransactionType.DEPOSIT) {
+            updated = accountRepository.creditIfActive(accountId, request.getAmount());
+        } else {
+            updated = accountRepository.existsByAccountIdAndStatus(accountId, Account.AccountStatus.ACTIVE) ? 1 : 0;
+        }
+
+        if (updated == 0) {
+            throw rejectionFor(accountId);
+        }
+
+        Long userId = accountRepository.findUserIdByAccountId(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        return recordTransaction(accountRepository.getReferenceById(accountId), userId, type, request,
+                idempotencyKey);
+    }
+
+    private TransactionResponse recordTransaction(Account account, Long userId,
+            Transaction.TransactionType type, CreateTransactionRequest request, String idempotencyKey) {
         Transaction transaction = Transaction.builder()
                 .account(account)
                 .type(type)
@@ -79,15 +204,176 @@ public class TransactionService {
 
         transaction = transactionRepository.save(transaction);
 
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 0, balanceChange(type, request.getAmount()));
+        dashboardAggregates.record(DashboardAggregateService.Metric.TRANSACTIONS, 1, request.getAmount());
+        reportRollups.record(ReportRollupService.transactionMetric(type), request.getAmount());
+        eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
+
         // Send notification
         notificationService.sendNotification(
-                account.getUser().getUserId(),
+                userId,
                 "PAYMENT_RECEIVED",
                 "Transaction completed: " + type + " of " + request.getAmount(),
                 transaction.getTransactionId()
         );
 
-        return mapToTransactionResponse(transaction);
+        TransactionResponse response = mapToTransactionResponse(transaction);
+        idempotencyService.recordResponse(IdempotencyRecord.Scope.TRANSACTION, idempotencyKey, request, response);
+        return response;
+    }
+
+    public BatchTransactionResponse createTransactions(BatchTransactionRequest request) {
+        List<CreateTransactionRequest> items = request.getTransactions();
+        Set<Long> accountIds = items.stream()
+                .map(CreateTransactionRequest::getAccountId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        Supplier<BatchTransactionResponse> post =
+                () -> transactionTemplate.execute(status -> postBatch(items, accountIds, request.isAtomic()));
+
+        if (postingMode == PostingMode.ATOMIC) {
+            return post.get();
+        }
+        return accountLocks.withLocks(accountIds, post);
+    }
+
+    private BatchTransactionResponse postBatch(List<CreateTransactionRequest> items, Set<Long> accountIds,
+            boolean atomic) {
+        // One locking read for every account in the batch, in account id order
+        Map<Long, Account> accounts = accountRepository.findAllByIdForUpdate(accountIds).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        accounts.values().forEach(account -> balances.put(account.getAccountId(), account.getBalance()));
+
+        BatchTransactionResponse.BatchItemResult[] results = new BatchTransactionResponse.BatchItemResult[items.size()];
+        List<Transaction> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        int failed = 0;
+
+        // Validate every item against the running balance its predecessors in the batch left behind
+        for (int i = 0; i < items.size(); i++) {
+            CreateTransactionRequest item = items.get(i);
+            Account account = accounts.get(item.getAccountId());
+            String error = null;
+            Transaction.TransactionType type = null;
+
+            if (account == null) {
+                error = "Account not found";
+            } else if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+                error = "Account is not active";
+            } else {
+                try {
+                    type = parsePostingType(item.getType());
+                } catch (IllegalArgumentException e) {
+                    error = "Invalid transaction type: " + item.getType();
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            if (error == null) {
+                BigDecimal balance = balances.get(account.getAccountId());
+                if (isDebit(type)) {
+                    if (balance.compareTo(item.getAmount()) < 0) {
+                        error = "Insufficient balance";
+                    } else {
+                        balances.put(account.getAccountId(), balance.subtract(item.getAmount()));
+                    }
+                } else if (type == Transaction.TransactionType.DEPOSIT) {
+                    balances.put(account.getAccountId(), balance.add(item.getAmount()));
+                }
+            }
+
+            if (error != null) {
+                results[i] = BatchTransactionResponse.BatchItemResult.builder()
+                        .index(i).success(false).error(error).build();
+                failed++;
+                continue;
+            }
+
+            pending.add(Transaction.builder()
+                    .account(account)
+                    .type(type)
+                    .amount(item.getAmount())
+                    .description(item.getDescription())
+                    .status(Transaction.TransactionStatus.COMPLETED)
+                    .referenceNumber(generateReferenceNumber())
+                    .build());
+            pendingIndexes.add(i);
+        }
+
+        if (atomic && failed > 0) {
+            // Nothing has been written yet, so rejecting the batch needs no rollback
+            for (int index : pendingIndexes) {
+                results[index] = BatchTransactionResponse.BatchItemResult.builder()
+                        .index(index).success(false).error("Not posted: batch rejected").build();
+            }
+            return BatchTransactionResponse.builder()
+                    .atomic(true)
+                    .committed(false)
+                    .total(items.size())
+                    .succeeded(0)
+                    .failed(items.size())
+                    .results(List.of(results))
+                    .build();
+        }
+
+        // One UPDATE per touched account, flushed together with the batched transaction INSERTs
+        for (Account account : accounts.values()) {
+            BigDecimal balance = balances.get(account.getAccountId());
+            if (balance.compareTo(account.getBalance()) != 0) {
+                account.setBalance(balance);
+            }
+        }
+        List<Transaction> saved = transactionRepository.saveAll(pending);
+
+        BigDecimal balanceChange = BigDecimal.ZERO;
+        BigDecimal postedAmount = BigDecimal.ZERO;
+        for (Transaction transaction : saved) {
+            balanceChange = balanceChange.add(balanceChange(transaction.getType(), transaction.getAmount()));
+            postedAmount = postedAmount.add(transaction.getAmount());
+            reportRollups.record(ReportRollupService.transactionMetric(transaction.getType()), transaction.getAmount());
+        }
+        dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 0, balanceChange);
+        dashboardAggregates.record(DashboardAggregateService.Metric.TRANSACTIONS, saved.size(), postedAmount);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
+
+        Map<Long, List<Transaction>> postedByUser = new LinkedHashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            Transaction transaction = saved.get(i);
+            int index = pendingIndexes.get(i);
+            results[index] = BatchTransactionResponse.BatchItemResult.builder()
+                    .index(index).success(true).transaction(mapToTransactionResponse(transaction)).build();
+            postedByUser.computeIfAbsent(transaction.getAccount().getUser().getUserId(), id -> new ArrayList<>())
+                    .add(transaction);
+        }
+
+        // Send one summary notification per customer instead of one per item
+        postedByUser.forEach((userId, transactions) -> notificationService.sendNotification(
+                userId,
+                "PAYMENT_RECEIVED",
+                "Batch completed: " + transactions.size() + " transaction(s) totalling " +
+                        transactions.stream().map(Transaction::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add),
+                transactions.get(0).getTransactionId()
+        ));
+
+        return BatchTransactionResponse.builder()
+                .atomic(atomic)
+                .committed(true)
+                .total(items.size())
+                .succeeded(saved.size())
+                .failed(failed)
+                .results(List.of(results))
+                .build();
+    }
+
+    private RuntimeException rejectionFor(Long accountId) {
+        // Only reached on the failure path, so the extra read does not cost the happy path anything
+        return accountRepository.findById(accountId)
+                .map(account -> account.getStatus() != Account.AccountStatus.ACTIVE
+                        ? new RuntimeException("Account is not active")
+                        : new RuntimeException("Insufficient balance"))
+                .orElseGet(() -> new RuntimeException("Account not found"));
     }
 
     @Transactional
@@ -97,45 +383,202 @@ public class TransactionService {
 
         transaction.setStatus(status);
         transaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
 
         return mapToTransactionResponse(transaction);
     }
 
-    @Transactional
-    public void reverseTransaction(Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    public TransferResponse transfer(TransferRequest request) {
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
+            throw new RuntimeException("Cannot transfer to the same account");
+        }
+        List<Long> accountIds = List.of(request.getFromAccountId(), request.getToAccountId());
 
-        if (transaction.getStatus() != Transaction.TransactionStatus.COMPLETED) {
-            throw new RuntimeException("Only completed transactions can be reversed");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Supplier<TransferResponse> post =
+                        () -> transactionTemplate.execute(status -> postTransfer(request, accountIds));
+                if (postingMode == PostingMode.ATOMIC) {
+                    return post.get();
+                }
+                return accountLocks.withLocks(accountIds, post);
+            } catch (PessimisticLockingFailureException e) {
+                // Lock ordering rules out deadlocks between transfers, but other writers on
+                // the same rows can still make InnoDB pick us as a victim
+                long retries = transferLockRetries.incrementAndGet();
+                log.warn("Transfer {} -> {} hit a lock conflict (attempt {}, {} retries so far)",
+                        request.getFromAccountId(), request.getToAccountId(), attempt, retries);
+                if (attempt >= MAX_TRANSFER_ATTEMPTS) {
+                    throw new RuntimeException("Transfer could not be completed, please retry");
+                }
+            }
         }
+    }
 
-        Account account = transaction.getAccount();
+    public long getTransferLockRetries() {
+        return transferLockRetries.get();
+    }
+
+    private TransferResponse postTransfer(TransferRequest request, List<Long> accountIds) {
+        // Row locks are always taken in account id order, so two opposite transfers
+        // between the same pair of accounts queue behind each other instead of deadlocking
+        Map<Long, Account> accounts = accountRepository.findAllByIdForUpdate(accountIds).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+        Account source = accounts.get(request.getFromAccountId());
+        Account destination = accounts.get(request.getToAccountId());
 
-        // Reverse the transaction amount
-        if (transaction.getType() == Transaction.TransactionType.WITHDRAWAL ||
-            transaction.getType() == Transaction.TransactionType.PAYMENT ||
-            transaction.getType() == Transaction.TransactionType.TRANSFER) {
-            account.setBalance(account.getBalance().add(transaction.getAmount()));
-        } else if (transaction.getType() == Transaction.TransactionType.DEPOSIT) {
-            account.setBalance(account.getBalance().subtract(transaction.getAmount()));
+        if (source == null || destination == null) {
+            throw new RuntimeException("Account not found");
+        }
+        if (source.getStatus() != Account.AccountStatus.ACTIVE
+                || destination.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new RuntimeException("Account is not active");
+        }
+        if (source.getBalance().compareTo(request.getAmount()) < 0) {
+            throw new RuntimeException("Insufficient balance");
         }
 
-        accountRepository.save(account);
-        transaction.setStatus(Transaction.TransactionStatus.CANCELLED);
-        transactionRepository.save(transaction);
+        source.setBalance(source.getBalance().subtract(request.getAmount()));
+        destination.setBalance(destination.getBalance().add(request.getAmount()));
 
-        // Send notification
+        String transferReference = referenceNumberGenerator.nextReference("TRF");
+        List<Transaction> legs = transactionRepository.saveAll(List.of(
+                buildTransferLeg(source, Transaction.TransactionType.TRANSFER, request, transferReference),
+                buildTransferLeg(destination, Transaction.TransactionType.TRANSFER_IN, request, transferReference)));
+
+        // Money only moves between accounts, so the total balance is unchanged
+        dashboardAggregates.record(DashboardAggregateService.Metric.TRANSACTIONS, 2,
+                request.getAmount().multiply(BigDecimal.valueOf(2)));
+        reportRollups.record(ReportRollupService.transactionMetric(Transaction.TransactionType.TRANSFER), request.getAmount());
+        reportRollups.record(ReportRollupService.transactionMetric(Transaction.TransactionType.TRANSFER_IN), request.getAmount());
+        eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
+
+        // Send notifications
         notificationService.sendNotification(
-                account.getUser().getUserId(),
+                source.getUser().getUserId(),
                 "INFO",
-                "Transaction reversed: " + transaction.getReferenceNumber(),
-                transactionId
+                "Transfer of " + request.getAmount() + " to account " + destination.getAccountId() + " completed",
+                legs.get(0).getTransactionId()
+        );
+        notificationService.sendNotification(
+                destination.getUser().getUserId(),
+                "PAYMENT_RECEIVED",
+                "Transfer of " + request.getAmount() + " received from account " + source.getAccountId(),
+                legs.get(1).getTransactionId()
         );
+
+        return TransferResponse.builder()
+                .transferReference(transferReference)
+                .debit(mapToTransactionResponse(legs.get(0)))
+                .credit(mapToTransactionResponse(legs.get(1)))
+                .build();
+    }
+
+    private Transaction buildTransferLeg(Account account, Transaction.TransactionType type,
+            TransferRequest request, String transferReference) {
+        return Transaction.builder()
+                .account(account)
+                .type(type)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .referenceNumber(generateReferenceNumber())
+                .transferReference(transferReference)
+                .build();
+    }
+
+    public void reverseTransaction(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+        // Reversing either leg of a transfer reverses the whole transfer
+        List<Long> accountIds = transaction.getTransferReference() != null
+                ? transactionRepository.findAccountIdsByTransferReference(transaction.getTransferReference())
+                : List.of(transaction.getAccount().getAccountId());
+
+        accountLocks.withLocks(accountIds, () -> transactionTemplate.execute(status -> {
+            postReversal(transactionId);
+            return null;
+        }));
+    }
+
+    private void postReversal(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        List<Transaction> legs = transaction.getTransferReference() != null
+                ? transactionRepository.findByTransferReference(transaction.getTransferReference())
+                : List.of(transaction);
+
+        Map<Long, Account> accounts = accountRepository.findAllByIdForUpdate(
+                        legs.stream().map(leg -> leg.getAccount().getAccountId()).toList()).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+        for (Transaction leg : legs) {
+            if (leg.getStatus() != Transaction.TransactionStatus.COMPLETED) {
+                throw new RuntimeException("Only completed transactions can be reversed");
+            }
+
+            Account account = accounts.get(leg.getAccount().getAccountId());
+
+            // Reverse the transaction amount
+            if (isDebit(leg.getType())) {
+                account.setBalance(account.getBalance().add(leg.getAmount()));
+            } else if (isCredit(leg.getType())) {
+                if (account.getBalance().compareTo(leg.getAmount()) < 0) {
+                    throw new RuntimeException("Insufficient balance to reverse transaction");
+                }
+                account.setBalance(account.getBalance().subtract(leg.getAmount()));
+            }
+
+            leg.setStatus(Transaction.TransactionStatus.CANCELLED);
+            dashboardAggregates.record(DashboardAggregateService.Metric.ACCOUNTS, 0,
+                    balanceChange(leg.getType(), leg.getAmount()).negate());
+
+            // Send notification
+            notificationService.sendNotification(
+                    account.getUser().getUserId(),
+                    "INFO",
+                    "Transaction reversed: " + leg.getReferenceNumber(),
+                    leg.getTransactionId()
+            );
+        }
+
+        eventPublisher.publishEvent(new ReportDataChangedEvent("TRANSACTION"));
+    }
+
+    private Transaction.TransactionType parsePostingType(String type) {
+        Transaction.TransactionType parsed = Transaction.TransactionType.valueOf(type);
+        if (parsed == Transaction.TransactionType.TRANSFER || parsed == Transaction.TransactionType.TRANSFER_IN) {
+            throw new RuntimeException("Transfers must be posted through /api/transactions/transfer");
+        }
+        if (parsed == Transaction.TransactionType.INTEREST) {
+            throw new RuntimeException("Interest is only posted by the savings interest run");
+        }
+        return parsed;
+    }
+
+    // INTEREST rows are savings interest that SavingsInterestJob added to the balance
+    private boolean isCredit(Transaction.TransactionType type) {
+        return type == Transaction.TransactionType.DEPOSIT ||
+               type == Transaction.TransactionType.TRANSFER_IN ||
+               type == Transaction.TransactionType.INTEREST;
+    }
+
+    private boolean isDebit(Transaction.TransactionType type) {
+        return type == Transaction.TransactionType.WITHDRAWAL ||
+               type == Transaction.TransactionType.PAYMENT ||
+               type == Transaction.TransactionType.TRANSFER;
+    }
+
+    private BigDecimal balanceChange(Transaction.TransactionType type, BigDecimal amount) {
+        if (isDebit(type)) {
+            return amount.negate();
+        }
+        return isCredit(type) ? amount : BigDecimal.ZERO;
     }
 
     private String generateReferenceNumber() {
-        return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        return referenceNumberGenerator.nextReference("TXN");
     }
 
     private TransactionResponse mapToTransactionResponse(Transaction transaction) {
@@ -148,6 +591,7 @@ public class TransactionService {
                 .description(transaction.getDescription())
                 .status(transaction.getStatus().name())
                 .referenceNumber(transaction.getReferenceNumber())
+                .transferReference(transaction.getTransferReference())
                 .build();
     }
 }
@@ -0,0 +1,155 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory unread notification counts behind the badge endpoint.
+ *
+ * A user's count is read from the database once, on the first poll, and from then on
+ * moved by the code paths that create, read or delete notifications. Adjustments are
+ * applied after commit, so a rolled-back change never moves a counter. Counts can
+ * still drift, for example when another instance delivers or reads a notification, so
+ * a periodic pass recounts every tracked user with one grouped query per chunk and
+ * drops users who stopped polling.
+ */
+@Component
+@Slf4j
+public class UnreadNotificationCounters {
+
+    private static final int RECONCILE_CHUNK = 500;
+
+    private static final class Counter {
+        final AtomicLong unread;
+        volatile long lastPolledMillis = System.currentTimeMillis();
+
+        Counter(long unread) {
+            this.unread = new AtomicLong(unread);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final int maxUsers;
+    private final long idleMillis;
+
+    public UnreadNotificationCounters(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            @Value("${notifications.unread.max-users:200000}") int maxUsers,
+            @Value("${notifications.unread.idle-minutes:30}") long idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.maxUsers = maxUsers;
+        this.idleMillis = idleMinutes * 60_000;
+    }
+
+    public long get(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter == null) {
+            long unread = countUnread(userId);
+            if (counters.size() >= maxUsers) {
+                // Full until the next reconcile drops idle users; answer from the database
+                return unread;
+            }
+            counter = counters.computeIfAbsent(userId, id -> new Counter(unread));
+        }
+        counter.lastPolledMillis = System.currentTimeMillis();
+        return Math.max(0, counter.unread.get());
+    }
+
+    /**
+     * Moves the user's count by delta once the current transaction commits, or right
+     * away when there is none. Users whose count is not tracked are skipped; their first
+     * poll reads the committed state.
+     */
+    public void adjustAfterCommit(Long userId, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust(userId, delta);
+                }
+            });
+        } else {
+            adjust(userId, delta);
+        }
+    }
+
+    public void adjustAfterCommit(Map<Long, Long> deltas) {
+        deltas.forEach(this::adjustAfterCommit);
+    }
+
+    /**
+     * Forgets the user's count, so the next poll reads it from the database. Used after
+     * bulk changes whose per-user effect is not known.
+     */
+    public void resetAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counters.remove(userId);
+                }
+            });
+        } else {
+            counters.remove(userId);
+        }
+    }
+
+    private void adjust(Long userId, long delta) {
+        Counter counter = counters.get(userId);
+        if (counter != null) {
+            counter.unread.addAndGet(delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        counters.entrySet().removeIf(entry -> entry.getValue().lastPolledMillis < idleBefore);
+
+        List<Long> userIds = new ArrayList<>(counters.keySet());
+        int drifted = 0;
+        for (int from = 0; from < userIds.size(); from += RECONCILE_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + RECONCILE_CHUNK, userIds.size()));
+            Map<Long, Long> actual = new HashMap<>();
+            namedParameterJdbcTemplate.query(
+                    "SELECT user_id, COUNT(*) FROM notifications WHERE status = 'UNREAD' AND user_id IN (:ids) " +
+                    "GROUP BY user_id",
+                    Map.of("ids", chunk),
+                    rs -> {
+                        actual.put(rs.getLong(1), rs.getLong(2));
+                    });
+            for (Long userId : chunk) {
+                Counter counter = counters.get(userId);
+                long unread = actual.getOrDefault(userId, 0L);
+                if (counter != null && counter.unread.getAndSet(unread) != unread) {
+                    drifted++;
+                }
+            }
+        }
+        if (drifted > 0) {
+            log.debug("Reconciled unread counts: {} of {} users had drifted", drifted, userIds.size());
+        }
+    }
+
+    private long countUnread(Long userId) {
+        Long unread = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND status = 'UNREAD'", Long.class, userId);
+        return unread != null ? unread : 0;
+    }
+}
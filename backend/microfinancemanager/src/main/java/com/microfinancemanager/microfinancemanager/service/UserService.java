@@ -13,6 +13,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -20,6 +22,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final DashboardAggregateService dashboardAggregates;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Transactional
@@ -41,6 +44,9 @@ public class UserService {
                 .build();
 
         user = userRepository.save(user);
+
+        dashboardAggregates.record(DashboardAggregateService.Metric.USERS, 1, BigDecimal.ZERO);
+        dashboardAggregates.recordUserStatusChange(null, user.getStatus());
         
         log.info("User created successfully with ID: {}", user.getUserId());
         
@@ -94,9 +100,11 @@ public class UserService {
     public UserResponse approveUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        User.UserStatus previousStatus = user.getStatus();
 
         user.setStatus(User.UserStatus.ACTIVE);
         user = userRepository.save(user);
+        dashboardAggregates.recordUserStatusChange(previousStatus, user.getStatus());
 
         // Send notification
         notificationService.sendNotification(
@@ -113,9 +121,11 @@ public class UserService {
     public UserResponse suspendUser(Long userId, String reason) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        User.UserStatus previousStatus = user.getStatus();
 
         user.setStatus(User.UserStatus.INACTIVE);
         user = userRepository.save(user);
+        dashboardAggregates.recordUserStatusChange(previousStatus, user.getStatus());
 
         // Send notification
         notificationService.sendNotification(
@@ -132,8 +142,10 @@ public class UserService {
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        User.UserStatus previousStatus = user.getStatus();
         user.setStatus(User.UserStatus.INACTIVE);
         userRepository.save(user);
+        dashboardAggregates.recordUserStatusChange(previousStatus, user.getStatus());
     }
 
     private UserResponse mapToUserResponse(User user) {
@@ -0,0 +1,63 @@
+package com.microfinancemanager.microfinancemanager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedExpiringCacheTests {
+
+	@Test
+	void sizeStaysWithinBoundAndRecentlyReadEntriesSurvive() {
+		BoundedExpiringCache<Integer, String> cache = new BoundedExpiringCache<>(100, Duration.ofMinutes(1));
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, "value-" + i);
+		}
+		assertEquals("value-0", cache.get(0));
+
+		for (int i = 100; i < 1000; i++) {
+			cache.put(i, "value-" + i);
+			assertTrue(cache.size() <= 100, "size must not exceed the bound");
+		}
+		assertEquals("value-999", cache.get(999));
+
+		BoundedExpiringCache<Integer, String> small = new BoundedExpiringCache<>(100, Duration.ofMinutes(1));
+		for (int i = 0; i < 100; i++) {
+			small.put(i, "value-" + i);
+		}
+		small.get(0);
+		small.put(100, "value-100");
+		assertEquals("value-0", small.get(0));
+		assertNull(small.get(1));
+	}
+
+	@Test
+	void entriesExpireAtTheirDeadline() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, Duration.ofMinutes(1));
+		long now = System.currentTimeMillis();
+		cache.put("expired", "a", now - 1);
+		cache.put("live", "b", now + 60_000);
+		cache.put("default", "c");
+
+		assertNull(cache.get("expired"));
+		assertEquals("b", cache.get("live"));
+		assertEquals("c", cache.get("default"));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void evictExpiredDropsOnlyExpiredEntries() {
+		BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10, Duration.ofMinutes(1));
+		long now = System.currentTimeMillis();
+		cache.put("first", "a", now - 10);
+		cache.put("second", "b", now - 5);
+		cache.put("live", "c", now + 60_000);
+
+		assertEquals(2, cache.evictExpired());
+		assertEquals(1, cache.size());
+		assertEquals("c", cache.get("live"));
+	}
+}
@@ -0,0 +1,148 @@
+package com.microfinancemanager.microfinancemanager.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheTests {
+
+	private static final int CALLERS = 8;
+
+	private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+	private final SingleFlightCache<String, String> cache = new SingleFlightCache<>(Duration.ofMinutes(1));
+	private final AtomicInteger computations = new AtomicInteger();
+	private final CountDownLatch computing = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void stopCallers() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void concurrentMissesShareOneComputation() throws Exception {
+		List<Future<String>> results = callConcurrently(() -> {
+			computations.incrementAndGet();
+			return "report";
+		});
+
+		for (Future<String> result : results) {
+			assertEquals("report", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, computations.get());
+		assertEquals(1, cache.stats().misses());
+		assertEquals(CALLERS - 1, cache.stats().coalesced());
+
+		assertEquals("report", cache.get("key", () -> "recomputed"));
+		assertEquals(1, cache.stats().hits());
+	}
+
+	@Test
+	void failureReachesEveryWaiterAndIsNotCached() throws Exception {
+		RuntimeException failure = new RuntimeException("database unavailable");
+		List<Future<String>> results = callConcurrently(() -> {
+			computations.incrementAndGet();
+			throw failure;
+		});
+
+		for (Future<String> result : results) {
+			ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertSame(failure, thrown.getCause());
+		}
+		assertEquals(1, computations.get());
+
+		assertEquals("recovered", cache.get("key", () -> "recovered"));
+		assertEquals(2, cache.stats().misses());
+	}
+
+	@Test
+	void errorReachesEveryWaiterAndIsNotCached() throws Exception {
+		Error failure = new OutOfMemoryError("report too large");
+		List<Future<String>> results = callConcurrently(() -> {
+			computations.incrementAndGet();
+			throw failure;
+		});
+
+		for (Future<String> result : results) {
+			ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertSame(failure, thrown.getCause());
+		}
+		assertEquals("recovered", cache.get("key", () -> "recovered"));
+	}
+
+	@Test
+	void sizeStaysWithinBoundAndExpiredEntriesGoFirst() {
+		SingleFlightCache<Integer, String> bounded = new SingleFlightCache<>(Duration.ofMinutes(1), 100);
+		for (int i = 0; i < 1000; i++) {
+			bounded.get(i, () -> "report");
+			assertTrue(bounded.stats().entries() <= 101, "size must stay near the bound");
+		}
+
+		SingleFlightCache<Integer, String> expiring = new SingleFlightCache<>(Duration.ZERO, 100);
+		for (int i = 0; i < 50; i++) {
+			expiring.get(i, () -> "stale");
+		}
+		assertEquals(50, expiring.evictExpired());
+		assertEquals(0, expiring.stats().entries());
+	}
+
+	@Test
+	void invalidateIfDropsOnlyMatchingKeys() {
+		cache.get("2026-01", () -> "january");
+		cache.get("2026-02", () -> "february");
+
+		cache.invalidateIf(key -> key.endsWith("01"));
+
+		assertEquals("january again", cache.get("2026-01", () -> "january again"));
+		assertEquals("february", cache.get("2026-02", () -> "february again"));
+	}
+
+	// Starts one caller whose computation blocks, then the rest, and lets the
+	// computation finish once all of them are waiting on it
+	private List<Future<String>> callConcurrently(Supplier<String> loader) throws InterruptedException {
+		List<Future<String>> results = new ArrayList<>();
+		results.add(callers.submit(() -> cache.get("key", () -> {
+			computing.countDown();
+			awaitRelease();
+			return loader.get();
+		})));
+		computing.await(5, TimeUnit.SECONDS);
+
+		for (int i = 1; i < CALLERS; i++) {
+			results.add(callers.submit(() -> cache.get("key", () -> {
+				computations.incrementAndGet();
+				return "duplicate";
+			})));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (cache.stats().coalesced() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+		return results;
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.microfinancemanager.microfinancemanager.dto.common;
+
+import com.microfinancemanager.microfinancemanager.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123_456_000), 4_242L);
+
+		assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+	}
+
+	@Test
+	void missingCursorMeansFirstPage() {
+		assertNull(KeysetCursor.decode(null));
+		assertNull(KeysetCursor.decode(" "));
+	}
+
+	@Test
+	void badBase64IsRejected() {
+		assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not*base64!"));
+	}
+
+	@Test
+	void missingSeparatorIsRejected() {
+		assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(encode("2026-10-17T09:30:15")));
+	}
+
+	@Test
+	void nonNumericIdIsRejected() {
+		assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(encode("2026-10-17T09:30:15|abc")));
+	}
+
+	@Test
+	void badTimestampIsRejected() {
+		assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(encode("yesterday|42")));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,60 @@
+package com.microfinancemanager.microfinancemanager.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTests {
+
+	private static final String SECRET = "testSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256";
+
+	@Test
+	void verifiedTokenIsServedFromTheCache() {
+		JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000L, 100);
+		String token = jwtUtil.generateToken("jane@example.com", 7L, "CUSTOMER");
+
+		Claims first = jwtUtil.extractAllClaims(token);
+		Claims second = jwtUtil.extractAllClaims(token);
+
+		assertSame(first, second);
+		assertEquals("jane@example.com", second.getSubject());
+		assertEquals(7, ((Number) second.get("userId")).intValue());
+	}
+
+	@Test
+	void cachedTokenIsRejectedOnceItExpires() throws InterruptedException {
+		JwtUtil jwtUtil = new JwtUtil(SECRET, 1_000L, 100);
+		String token = jwtUtil.generateToken("jane@example.com", 7L, "CUSTOMER");
+		Claims claims = jwtUtil.extractAllClaims(token);
+
+		// exp has one-second precision, so wait from the deadline the token carries
+		long wait = claims.getExpiration().getTime() - System.currentTimeMillis() + 50;
+		if (wait > 0) {
+			Thread.sleep(wait);
+		}
+
+		assertThrows(ExpiredJwtException.class, () -> jwtUtil.extractAllClaims(token));
+	}
+
+	@Test
+	void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+		JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000L, 100);
+		String token = jwtUtil.generateToken("jane@example.com", 7L, "CUSTOMER");
+		jwtUtil.extractAllClaims(token);
+
+		String[] parts = token.split("\\.");
+		String forgedPayload = parts[1].substring(0, parts[1].length() - 2)
+				+ (parts[1].endsWith("A") ? "BB" : "AA");
+		String tampered = parts[0] + "." + forgedPayload + "." + parts[2];
+
+		assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(tampered));
+		assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(
+				new JwtUtil("anotherSecretKeyThatIsAlsoLongEnoughForTheHS256Algorithm", 3_600_000L, 100)
+						.generateToken("jane@example.com", 7L, "ADMIN")));
+	}
+}
@@ -0,0 +1,94 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountLockStripesTests {
+
+	private final ExecutorService others = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void stopOthers() {
+		others.shutdownNow();
+	}
+
+	@Test
+	void sequentialAccountIdsSpreadEvenlyOverStripes() {
+		// 1000 rounds up to 1024 stripes
+		AccountLockStripes locks = new AccountLockStripes(1000, 1000);
+		int[] perStripe = new int[1024];
+		for (long accountId = 1; accountId <= 10_240; accountId++) {
+			int stripe = locks.stripeFor(accountId);
+			assertEquals(stripe, locks.stripeFor(accountId));
+			perStripe[stripe]++;
+		}
+		for (int count : perStripe) {
+			assertTrue(count > 0 && count <= 20, "uneven stripe load: " + count);
+		}
+	}
+
+	@Test
+	void overlappingAccountSetsInOppositeOrderDoNotDeadlock() throws Exception {
+		AccountLockStripes locks = new AccountLockStripes(1024, 2000);
+		List<Long> forward = List.of(1L, 2L, 3L, 4L);
+		List<Long> backward = List.of(4L, 3L, 2L, 1L);
+
+		Future<?> first = others.submit(() -> transferMany(locks, forward));
+		Future<?> second = others.submit(() -> transferMany(locks, backward));
+
+		// A lock taken out of stripe order would time out with "Account is busy"
+		first.get(30, TimeUnit.SECONDS);
+		second.get(30, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void busyStripeTimesOutAndReleasesStripesAlreadyTaken() throws Exception {
+		AccountLockStripes locks = new AccountLockStripes(1024, 50);
+		assertTrue(locks.stripeFor(3L) < locks.stripeFor(1L));
+
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> holder = others.submit(() -> locks.withLock(1L, () -> {
+			holding.countDown();
+			return await(release);
+		}));
+		holding.await(5, TimeUnit.SECONDS);
+
+		RuntimeException busy = assertThrows(RuntimeException.class, () -> locks.withLock(1L, () -> null));
+		assertEquals("Account is busy, please retry", busy.getMessage());
+
+		// Stripe of account 3 is taken first, then the wait on account 1 times out
+		assertThrows(RuntimeException.class, () -> locks.withLocks(List.of(1L, 3L), () -> null));
+		assertEquals("free", others.submit(() -> locks.withLock(3L, () -> "free")).get(5, TimeUnit.SECONDS));
+
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals("done", locks.withLocks(List.of(1L, 3L), () -> "done"));
+	}
+
+	private void transferMany(AccountLockStripes locks, List<Long> accountIds) {
+		for (int i = 0; i < 20_000; i++) {
+			locks.withLocks(accountIds, () -> null);
+		}
+	}
+
+	private Object await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+}
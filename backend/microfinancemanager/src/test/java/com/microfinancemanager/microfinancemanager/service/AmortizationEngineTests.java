@@ -0,0 +1,56 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import com.microfinancemanager.microfinancemanager.model.Loan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AmortizationEngineTests {
+
+	private final AmortizationEngine engine = new AmortizationEngine();
+
+	@Test
+	void reducingBalanceRepaysExactPrincipalWithEqualPayments() {
+		List<AmortizationEngine.Installment> schedule = engine.schedule(new BigDecimal("10000.00"),
+				new BigDecimal("12.00"), 12, Loan.InterestMethod.REDUCING_BALANCE, 1, LocalDate.of(2026, 1, 31),
+				BigDecimal.ZERO);
+
+		assertEquals(12, schedule.size());
+		assertEquals(new BigDecimal("888.49"), schedule.get(0).total());
+		assertEquals(new BigDecimal("100.00"), schedule.get(0).interest());
+		assertEquals(0, sumPrincipal(schedule).compareTo(new BigDecimal("10000.00")));
+		assertEquals(LocalDate.of(2026, 2, 28), schedule.get(1).dueDate());
+		assertEquals(schedule.get(11).cumulativeDue(),
+				schedule.stream().map(AmortizationEngine.Installment::total).reduce(BigDecimal.ZERO, BigDecimal::add));
+	}
+
+	@Test
+	void flatSpreadsInterestOnOriginalPrincipalAndAbsorbsRounding() {
+		List<AmortizationEngine.Installment> schedule = engine.schedule(new BigDecimal("1000.00"),
+				new BigDecimal("10.00"), 3, Loan.InterestMethod.FLAT, 1, LocalDate.of(2026, 1, 15), BigDecimal.ZERO);
+
+		assertEquals(new BigDecimal("333.33"), schedule.get(0).principal());
+		assertEquals(new BigDecimal("333.34"), schedule.get(2).principal());
+		assertEquals(new BigDecimal("8.33"), schedule.get(0).interest());
+		assertEquals(new BigDecimal("8.34"), schedule.get(2).interest());
+		assertEquals(new BigDecimal("1025.00"), schedule.get(2).cumulativeDue());
+	}
+
+	@Test
+	void zeroRateSplitsPrincipalEvenly() {
+		List<AmortizationEngine.Installment> schedule = engine.schedule(new BigDecimal("600.00"), BigDecimal.ZERO,
+				6, Loan.InterestMethod.REDUCING_BALANCE, 3, LocalDate.of(2026, 3, 1), new BigDecimal("200.00"));
+
+		assertEquals(3, schedule.get(0).number());
+		assertEquals(new BigDecimal("100.00"), schedule.get(5).total());
+		assertEquals(new BigDecimal("800.00"), schedule.get(5).cumulativeDue());
+	}
+
+	private BigDecimal sumPrincipal(List<AmortizationEngine.Installment> schedule) {
+		return schedule.stream().map(AmortizationEngine.Installment::principal).reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+}
@@ -0,0 +1,76 @@
+package com.microfinancemanager.microfinancemanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceNumberGeneratorTests {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 500_000;
+
+	@Test
+	void idsAreUniqueAndMonotonicAcrossThreads() throws InterruptedException {
+		ReferenceNumberGenerator generator = new ReferenceNumberGenerator(7);
+		long[][] issued = new long[THREADS][IDS_PER_THREAD];
+
+		Thread[] workers = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			long[] ids = issued[t];
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					ids[i] = generator.nextId();
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		long[] all = new long[THREADS * IDS_PER_THREAD];
+		for (int t = 0; t < THREADS; t++) {
+			for (int i = 1; i < IDS_PER_THREAD; i++) {
+				assertTrue(issued[t][i] > issued[t][i - 1], "ids must increase within a thread");
+			}
+			System.arraycopy(issued[t], 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+		}
+
+		Arrays.sort(all);
+		for (int i = 1; i < all.length; i++) {
+			assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+		}
+	}
+
+	@Test
+	void nodesNeverCollide() {
+		ReferenceNumberGenerator first = new ReferenceNumberGenerator(1);
+		ReferenceNumberGenerator second = new ReferenceNumberGenerator(2);
+
+		long[] all = new long[200_000];
+		for (int i = 0; i < all.length; i += 2) {
+			all[i] = first.nextId();
+			all[i + 1] = second.nextId();
+		}
+
+		long distinct = Arrays.stream(all).distinct().count();
+		assertEquals(all.length, distinct);
+	}
+
+	@Test
+	void referencesAreFixedWidthAndSortInIssueOrder() {
+		ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3);
+
+		String previous = generator.nextReference("TXN");
+		for (int i = 0; i < 10_000; i++) {
+			String next = generator.nextReference("TXN");
+			assertEquals(16, next.length());
+			assertTrue(next.startsWith("TXN"));
+			assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+			previous = next;
+		}
+	}
+}
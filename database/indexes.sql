@@ -15,6 +15,8 @@ CREATE INDEX CONCURRENTLY idx_accounts_status ON accounts(status);
 -- Optimizes: "Get last 30 days of transactions for Account X"
 -- Order matters: We filter by account_id first (equality), then range scan by timestamp.
 -- We use DESC on timestamp because we usually want the most recent transactions first.
+-- InnoDB appends the primary key to every secondary index, so this also serves the
+-- cursor endpoints, which seek on (timestamp, transaction_id) instead of using OFFSET.
 CREATE INDEX CONCURRENTLY idx_transactions_account_dt 
 ON transactions(account_id, timestamp DESC);
 
@@ -26,4 +28,40 @@ ON loans(user_id, status);
 -- 6. REPAYMENTS: Loan History (Composite Index)
 -- Optimizes: "List all repayments for Loan Z sorted by date"
 CREATE INDEX CONCURRENTLY idx_repayments_loan_dt 
-ON repayments(loan_id, timestamp DESC);
\ No newline at end of file
+ON repayments(loan_id, timestamp DESC);
+
+-- 7. TRANSACTIONS: Reporting Date Range
+-- Optimizes: "Transaction totals by type / by day between two dates" (admin breakdown report)
+CREATE INDEX CONCURRENTLY idx_transactions_timestamp 
+ON transactions(timestamp);
+
+-- 8. LOANS: Status + Due Date (Composite Index)
+-- Optimizes: "All ACTIVE loans with their due dates" (PAR report) and "ACTIVE loans due before date X" (overdue checks)
+CREATE INDEX CONCURRENTLY idx_loans_status_due 
+ON loans(status, due_date);
+
+-- 9. LOANS: Request Date (Listing)
+-- Optimizes: "Newest loans first" (GET /api/loans); the primary key appended by InnoDB
+-- makes (request_date, loan_id) the cursor seek position
+CREATE INDEX CONCURRENTLY idx_loans_request_date 
+ON loans(request_date);
+
+-- 10. LOANS: Status + Request Date (Composite Index)
+-- Optimizes: "Newest PENDING loans first" (GET /api/loans?status=...)
+CREATE INDEX CONCURRENTLY idx_loans_status_request 
+ON loans(status, request_date);
+
+-- 11. ACCOUNTS: User Listing (Composite Index)
+-- Optimizes: "Newest accounts of User Y first" (GET /api/accounts/user/{id}/cursor)
+CREATE INDEX CONCURRENTLY idx_accounts_user_created 
+ON accounts(user_id, created_at);
+
+-- 12. NOTIFICATIONS: User Inbox (Composite Index)
+-- Optimizes: "Newest notifications of User Y" (inbox cursor pages seek on (sent_at, notification_id))
+CREATE INDEX CONCURRENTLY idx_notifications_user_sent 
+ON notifications(user_id, sent_at);
+
+-- 13. NOTIFICATIONS: Status + Sent At (Composite Index)
+-- Optimizes: "READ notifications older than N days" (archive job) and "UNREAD for User Y" counts
+CREATE INDEX CONCURRENTLY idx_notifications_status_sent 
+ON notifications(status, sent_at);
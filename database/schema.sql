@@ -13,12 +13,17 @@ CREATE TABLE users (
 );
 
 -- ACCOUNTS
+-- balance_days is the sum of daily closing balances of the current interest period
+-- before balance_as_of; it is reset when period-end interest is posted.
 CREATE TABLE accounts (
     account_id INT AUTO_INCREMENT PRIMARY KEY,
     user_id INT NOT NULL,
     account_type ENUM('SAVINGS','CHECKING','CREDIT','INVESTMENT') NOT NULL,
     balance DECIMAL(15,2) DEFAULT 0.00,
     status ENUM('ACTIVE','FROZEN','CLOSED') DEFAULT 'ACTIVE',
+    balance_days DECIMAL(19,2) NOT NULL DEFAULT 0.00,
+    balance_as_of DATE,
+    interest_posted_through DATE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
@@ -28,15 +33,26 @@ CREATE TABLE accounts (
 CREATE TABLE transactions (
     transaction_id INT AUTO_INCREMENT PRIMARY KEY,
     account_id INT NOT NULL,
-    type ENUM('DEPOSIT','WITHDRAWAL','TRANSFER','PAYMENT','INTEREST') NOT NULL,
+    type ENUM('DEPOSIT','WITHDRAWAL','TRANSFER','TRANSFER_IN','PAYMENT','INTEREST') NOT NULL,
     amount DECIMAL(15,2) NOT NULL,
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     description VARCHAR(255),
     status ENUM('PENDING','COMPLETED','FAILED','CANCELLED') DEFAULT 'PENDING',
     reference_number VARCHAR(100) UNIQUE NOT NULL,
+    transfer_reference VARCHAR(100),
+    INDEX idx_transactions_transfer_reference (transfer_reference),
     FOREIGN KEY (account_id) REFERENCES accounts(account_id)
 );
 
+-- TRANSACTION ID ALLOCATION
+-- Hibernate reserves transaction ids from this table in blocks of 50 (pooled-lo),
+-- which keeps INSERTs into transactions JDBC-batchable.
+-- On an existing database seed it with MAX(transaction_id) + 1 instead of 1.
+CREATE TABLE transaction_id_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO transaction_id_seq (next_val) VALUES (1);
+
 -- LOANS
 CREATE TABLE loans (
     loan_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -45,21 +61,47 @@ CREATE TABLE loans (
     amount DECIMAL(15,2) NOT NULL,
     interest_rate DECIMAL(5,2) NOT NULL,
     repayment_period_months INT NOT NULL,
+    interest_method ENUM('FLAT','REDUCING_BALANCE') NOT NULL DEFAULT 'REDUCING_BALANCE',
     status ENUM('PENDING','APPROVED','REJECTED','ACTIVE','PAID_OFF','DEFAULTED') DEFAULT 'PENDING',
     request_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     start_date TIMESTAMP,
     due_date DATE,
     principal_balance DECIMAL(15,2) NOT NULL,
     total_repaid DECIMAL(15,2) DEFAULT 0.00,
+    accrued_penalty DECIMAL(15,2) DEFAULT 0.00,
+    last_accrual_date DATE,
     FOREIGN KEY (user_id) REFERENCES users(user_id),
     FOREIGN KEY (account_id) REFERENCES accounts(account_id)
 );
 
+-- LOAN INSTALLMENTS
+-- Repayment schedule generated on approval. An installment is paid once the loan's
+-- total_repaid covers its cumulative_due.
+CREATE TABLE loan_installments (
+    installment_id INT AUTO_INCREMENT PRIMARY KEY,
+    loan_id INT NOT NULL,
+    installment_number INT NOT NULL,
+    due_date DATE NOT NULL,
+    principal_due DECIMAL(15,2) NOT NULL,
+    interest_due DECIMAL(15,2) NOT NULL,
+    total_due DECIMAL(15,2) NOT NULL,
+    cumulative_due DECIMAL(15,2) NOT NULL,
+    status ENUM('PENDING','PAID') NOT NULL DEFAULT 'PENDING',
+    paid_at TIMESTAMP NULL,
+    reminder_sent_at TIMESTAMP NULL,
+    UNIQUE KEY uk_installment_loan_number (loan_id, installment_number),
+    INDEX idx_installments_status_due (status, due_date),
+    FOREIGN KEY (loan_id) REFERENCES loans(loan_id) ON DELETE CASCADE
+);
+
 -- REPAYMENTS
 CREATE TABLE repayments (
     repayment_id INT AUTO_INCREMENT PRIMARY KEY,
     loan_id INT NOT NULL,
     amount DECIMAL(15,2) NOT NULL,
+    penalty_amount DECIMAL(15,2) DEFAULT 0.00,
+    interest_amount DECIMAL(15,2) DEFAULT 0.00,
+    principal_amount DECIMAL(15,2) DEFAULT 0.00,
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     method ENUM('BANK_TRANSFER','CARD','CASH','MOBILE_MONEY') NOT NULL,
     reference VARCHAR(100),
@@ -80,6 +122,18 @@ CREATE TABLE notifications (
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
+-- NOTIFICATION OUTBOX
+-- Written in the posting transaction, moved into notifications by the dispatcher
+CREATE TABLE notification_outbox (
+    outbox_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    type VARCHAR(30) NOT NULL,
+    message TEXT NOT NULL,
+    related_id INT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_outbox_created_at (created_at)
+);
+
 -- AUDIT LOGS
 CREATE TABLE audit_logs (
     audit_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -92,3 +146,96 @@ CREATE TABLE audit_logs (
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE SET NULL
 );
+
+
+-- IDEMPOTENCY KEYS
+-- Stored responses for retried POST /api/transactions and /api/repayments calls
+CREATE TABLE idempotency_keys (
+    record_id INT AUTO_INCREMENT PRIMARY KEY,
+    scope ENUM('TRANSACTION','REPAYMENT') NOT NULL,
+    owner VARCHAR(150) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response_body TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_idempotency_scope_key (scope, owner, idempotency_key),
+    INDEX idx_idempotency_created_at (created_at)
+);
+
+-- DASHBOARD COUNTERS
+-- Running totals behind the admin dashboard. Each metric is spread over a few slot
+-- rows to avoid a single hot row; the dashboard sums the slots of each metric.
+-- Seeded from the base tables on startup when empty.
+CREATE TABLE dashboard_counters (
+    metric VARCHAR(30) NOT NULL,
+    slot TINYINT NOT NULL,
+    count_value BIGINT NOT NULL DEFAULT 0,
+    amount_value DECIMAL(19,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (metric, slot)
+);
+
+-- REPORT ROLLUPS
+-- Daily count/amount per metric behind GET /api/reports/timeseries. Today's rows are
+-- spread over slots; a nightly job folds closed days into slot 0.
+-- Seeded from the base tables on startup when empty.
+CREATE TABLE report_rollups (
+    bucket_date DATE NOT NULL,
+    metric VARCHAR(40) NOT NULL,
+    slot TINYINT NOT NULL,
+    count_value BIGINT NOT NULL DEFAULT 0,
+    amount_value DECIMAL(19,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_date, metric, slot)
+);
+
+-- JOB CHECKPOINTS
+-- Progress of batch jobs (interest accrual, ...) so an interrupted run can resume
+CREATE TABLE job_checkpoints (
+    job_name VARCHAR(50) PRIMARY KEY,
+    run_date DATE,
+    last_key BIGINT NOT NULL DEFAULT 0,
+    processed BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- SCHEDULER LOCKS
+-- Leases that keep a scheduled job on one node at a time; expire on their own
+CREATE TABLE scheduler_locks (
+    lock_name VARCHAR(50) PRIMARY KEY,
+    locked_by VARCHAR(255),
+    locked_until TIMESTAMP NOT NULL
+);
+
+-- NOTIFICATIONS ARCHIVE
+-- READ notifications past retention, moved out of notifications by a nightly job
+CREATE TABLE notifications_archive (
+    notification_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    type VARCHAR(30) NOT NULL,
+    message TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    related_id INT,
+    sent_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_notifications_archive_user (user_id, sent_at)
+);
+
+-- BROADCAST JOBS
+-- One notification to every user in a segment; sent and last_user_id track the background write
+CREATE TABLE broadcast_jobs (
+    job_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(30) NOT NULL,
+    message TEXT NOT NULL,
+    user_status VARCHAR(20),
+    user_role VARCHAR(20),
+    has_active_loan BOOLEAN,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    total_recipients BIGINT,
+    sent BIGINT NOT NULL DEFAULT 0,
+    last_user_id BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    INDEX idx_broadcast_jobs_status (status)
+);
@@ -11,9 +11,26 @@ import {
   DisburseLoanRequest,
   UpdateLoanRequest,
   LoanQueryParams,
+  CursorPage,
   SuccessResponse,
 } from "@/lib/types";
 
+// Follows nextCursor until the last page; the server returns at most 100 per page
+const fetchAllLoans = async (params: LoanQueryParams): Promise<Loan[]> => {
+  const loans: Loan[] = [];
+  let cursor: string | null = null;
+  do {
+    const page: CursorPage<Loan> = await api.get<CursorPage<Loan>>("/loans", {
+      ...params,
+      cursor: cursor ?? undefined,
+      limit: 100,
+    });
+    loans.push(...page.items);
+    cursor = page.nextCursor;
+  } while (cursor);
+  return loans;
+};
+
 export const loanApi = {
   /**
    * Request a new loan
@@ -100,7 +117,7 @@ export const loanApi = {
    * GET /loans?status=PENDING
    */
   getPendingLoans: async (): Promise<Loan[]> => {
-    return api.get<Loan[]>("/loans", { status: "PENDING" });
+    return fetchAllLoans({ status: "PENDING" });
   },
 
   /**
@@ -108,7 +125,7 @@ export const loanApi = {
    * GET /loans?status=APPROVED
    */
   getApprovedLoans: async (): Promise<Loan[]> => {
-    return api.get<Loan[]>("/loans", { status: "APPROVED" });
+    return fetchAllLoans({ status: "APPROVED" });
   },
 
   /**
@@ -128,11 +145,11 @@ export const loanApi = {
   },
 
   /**
-   * Get all loans (Admin only)
-   * GET /loans
+   * Search loans, one page at a time (Admin only)
+   * GET /loans?status=&userId=&cursor=&limit=
    */
-  getAllLoans: async (params?: LoanQueryParams): Promise<Loan[]> => {
-    return api.get<Loan[]>("/loans", params);
+  getAllLoans: async (params?: LoanQueryParams): Promise<CursorPage<Loan>> => {
+    return api.get<CursorPage<Loan>>("/loans", params);
   },
 
   /**
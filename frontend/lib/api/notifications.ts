@@ -2,7 +2,7 @@
 // Notification Management API Service
 // ============================================
 
-import { api } from "./client";
+import { api, API_BASE_URL, getAuthToken } from "./client";
 import {
   Notification,
   CreateNotificationRequest,
@@ -120,29 +120,17 @@ export const notificationApi = {
    * Mark all notifications as read for a user
    */
   markAllAsRead: async (userId: number): Promise<void> => {
-    const unreadNotifications = await api.get<Notification[]>(
-      `/notifications/user/${userId}`,
-      { status: "UNREAD" }
-    );
-
-    await Promise.all(
-      unreadNotifications.map((notification) =>
-        api.put(`/notifications/${notification.notificationId}`, {
-          status: "READ",
-        })
-      )
-    );
+    await api.put(`/notifications/user/${userId}/read-all`);
   },
 
   /**
    * Get unread notification count
    */
   getUnreadCount: async (userId: number): Promise<number> => {
-    const unreadNotifications = await api.get<Notification[]>(
-      `/notifications/user/${userId}`,
-      { status: "UNREAD" }
+    const response = await api.get<{ unreadCount: number }>(
+      `/notifications/user/${userId}/unread-count`
     );
-    return unreadNotifications.length;
+    return response.unreadCount;
   },
 
   /**
@@ -175,4 +163,142 @@ export const notificationApi = {
       relatedId: null,
     });
   },
+
+  /**
+   * Listen for notifications as they are delivered
+   * GET /notifications/user/{userId}/stream (Server-Sent Events)
+   *
+   * All listeners for a user share one stream, which closes when the last of them
+   * unsubscribes. Returns the function that unsubscribes.
+   */
+  streamNotifications: (
+    userId: number,
+    onNotification: (notification: Notification) => void
+  ): (() => void) => {
+    let shared = sharedStreams.get(userId);
+    if (!shared) {
+      const listeners = new Set<(notification: Notification) => void>();
+      shared = {
+        listeners,
+        close: openStream(userId, (notification) =>
+          listeners.forEach((listener) => listener(notification))
+        ),
+      };
+      sharedStreams.set(userId, shared);
+    }
+    const stream = shared;
+    stream.listeners.add(onNotification);
+
+    return () => {
+      stream.listeners.delete(onNotification);
+      if (stream.listeners.size === 0 && sharedStreams.get(userId) === stream) {
+        sharedStreams.delete(userId);
+        stream.close();
+      }
+    };
+  },
+};
+
+// ============================================
+// Notification Stream
+// ============================================
+
+interface SharedStream {
+  listeners: Set<(notification: Notification) => void>;
+  close: () => void;
+}
+
+const sharedStreams = new Map<number, SharedStream>();
+
+// Ids remembered to drop repeats; replays after a reconnect can resend a few
+const SEEN_IDS_LIMIT = 500;
+
+/**
+ * EventSource cannot send the Authorization header, so the stream is read with
+ * fetch. It reconnects with Last-Event-ID when the connection drops, so nothing
+ * sent in between is lost. Returns a function that closes the stream.
+ */
+const openStream = (
+  userId: number,
+  onNotification: (notification: Notification) => void
+): (() => void) => {
+  const controller = new AbortController();
+  const seenIds = new Set<number>();
+  let lastEventId: string | null = null;
+  let retryDelay = 1000;
+
+  const dispatch = (block: string) => {
+    let event = "message";
+    let id: string | null = null;
+    const data: string[] = [];
+    block.split("\n").forEach((line) => {
+      if (!line || line.startsWith(":")) return;
+      const colon = line.indexOf(":");
+      const field = colon === -1 ? line : line.slice(0, colon);
+      const value = colon === -1 ? "" : line.slice(colon + 1).replace(/^ /, "");
+      if (field === "event") event = value;
+      else if (field === "id") id = value;
+      else if (field === "data") data.push(value);
+    });
+    if (event !== "notification" || data.length === 0) return;
+
+    const notification = JSON.parse(data.join("\n")) as Notification;
+    if (id !== null && (lastEventId === null || Number(id) > Number(lastEventId))) {
+      lastEventId = id;
+    }
+    if (seenIds.has(notification.notificationId)) return;
+    seenIds.add(notification.notificationId);
+    if (seenIds.size > SEEN_IDS_LIMIT) {
+      seenIds.delete(seenIds.values().next().value as number);
+    }
+    onNotification(notification);
+  };
+
+  const connect = async (): Promise<void> => {
+    const token = getAuthToken();
+    if (!token) return;
+
+    const headers: Record<string, string> = {
+      Accept: "text/event-stream",
+      Authorization: `Bearer ${token}`,
+    };
+    if (lastEventId) headers["Last-Event-ID"] = lastEventId;
+
+    try {
+      const response = await fetch(
+        `${API_BASE_URL}/notifications/user/${userId}/stream`,
+        { headers, signal: controller.signal }
+      );
+      // Signed out, not allowed, or the server's stream limit is reached:
+      // reconnecting will not help, and fetched data stays as it is
+      if (response.status >= 400 && response.status < 500) return;
+
+      if (response.ok && response.body) {
+        retryDelay = 1000;
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = "";
+        while (true) {
+          const { done, value } = await reader.read();
+          if (done) break;
+          buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, "\n");
+          let end: number;
+          while ((end = buffer.indexOf("\n\n")) !== -1) {
+            dispatch(buffer.slice(0, end));
+            buffer = buffer.slice(end + 2);
+          }
+        }
+      }
+    } catch {
+      // Dropped connection; reconnect below
+    }
+
+    if (controller.signal.aborted) return;
+    await new Promise((resolve) => setTimeout(resolve, retryDelay));
+    retryDelay = Math.min(retryDelay * 2, 30000);
+    if (!controller.signal.aborted) return connect();
+  };
+
+  connect();
+  return () => controller.abort();
 };
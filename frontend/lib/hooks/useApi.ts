@@ -4,7 +4,7 @@
 
 "use client";
 
-import { useState, useEffect, useCallback } from "react";
+import { useState, useEffect, useCallback, useRef } from "react";
 import {
   authApi,
   userApi,
@@ -36,6 +36,7 @@ interface UseApiState<T> {
   loading: boolean;
   error: string | null;
   refetch: () => Promise<void>;
+  setData: (update: (current: T | null) => T | null) => void;
 }
 
 function useApi<T>(
@@ -63,7 +64,7 @@ function useApi<T>(
     fetchData();
   }, dependencies);
 
-  return { data, loading, error, refetch: fetchData };
+  return { data, loading, error, refetch: fetchData, setData };
 }
 
 // ============================================
@@ -214,10 +215,23 @@ export function useUserNotifications(userId: number, params?: any) {
 }
 
 export function useUnreadNotifications(userId: number) {
-  return useApi<Notification[]>(
+  const state = useApi<Notification[]>(
     () => notificationApi.getUnreadNotifications(userId),
     [userId]
   );
+
+  // Pushed notifications are added in place rather than refetching the list
+  const { setData } = state;
+  useNotificationStream(userId, (notification) => {
+    if (notification.status !== "UNREAD") return;
+    setData((current) =>
+      current && !current.some((n) => n.notificationId === notification.notificationId)
+        ? [notification, ...current]
+        : current
+    );
+  });
+
+  return state;
 }
 
 export function useUnreadCount(userId: number) {
@@ -231,9 +245,30 @@ export function useUnreadCount(userId: number) {
       .finally(() => setLoading(false));
   }, [userId]);
 
+  useNotificationStream(userId, () => setCount((current) => current + 1));
+
   return { count, loading };
 }
 
+/**
+ * Calls onNotification for each notification pushed to the user while the
+ * component is mounted. Components share one stream per user.
+ */
+export function useNotificationStream(
+  userId: number,
+  onNotification: (notification: Notification) => void
+) {
+  const handler = useRef(onNotification);
+  handler.current = onNotification;
+
+  useEffect(() => {
+    if (!userId) return;
+    return notificationApi.streamNotifications(userId, (notification) =>
+      handler.current(notification)
+    );
+  }, [userId]);
+}
+
 // ============================================
 // Dashboard Hooks
 // ============================================
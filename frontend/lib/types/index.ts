@@ -256,6 +256,19 @@ export interface UpdateLoanRequest {
 
 export interface LoanQueryParams {
   status?: LoanStatus;
+  userId?: number;
+  startDate?: string;
+  endDate?: string;
+  minAmount?: number;
+  maxAmount?: number;
+  cursor?: string;
+  limit?: number;
+}
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasNext: boolean;
 }
 
 // ============================================